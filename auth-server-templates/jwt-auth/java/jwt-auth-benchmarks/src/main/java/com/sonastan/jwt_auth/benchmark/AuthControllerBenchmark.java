@@ -0,0 +1,78 @@
+package com.sonastan.jwt_auth.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.sonastan.jwt_auth.infrastructure.security.user.UserDetailsImpl;
+import com.sonastan.jwt_auth.interfaces.rest.dto.auth.LoginRequestDto;
+import com.sonastan.jwt_auth.interfaces.rest.dto.auth.LoginResponseDto;
+import com.sonastan.jwt_auth.interfaces.rest.dto.auth.RefreshResponseDto;
+
+/**
+ * End to end cost of the controller methods without the servlet and filter
+ * stack. The refresh benchmark includes the bearer token decode done by the
+ * resource server filter and the refresh token rotation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthControllerBenchmark {
+
+    private BenchmarkFixtures fixtures;
+
+    private LoginRequestDto loginRequest;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @Setup
+    public void setUp() {
+        fixtures = new BenchmarkFixtures();
+        loginRequest = new LoginRequestDto(BenchmarkFixtures.USERNAME, BenchmarkFixtures.PASSWORD);
+    }
+
+    @Benchmark
+    public ResponseEntity<LoginResponseDto> login() {
+        return fixtures.authController().login(loginRequest, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<RefreshResponseDto> refresh(RefreshTokenState state) {
+        ResponseEntity<RefreshResponseDto> response = fixtures.authController()
+                .refresh(fixtures.jwtDecoder().decode(state.refreshToken));
+        state.refreshToken = response.getBody().refreshToken();
+        return response;
+    }
+
+    /**
+     * Refresh tokens are rotated, so every thread continues with the token
+     * returned by its previous call.
+     */
+    @State(Scope.Thread)
+    public static class RefreshTokenState {
+
+        private String refreshToken;
+
+        @Setup
+        public void setUp(AuthControllerBenchmark benchmark) {
+            refreshToken = benchmark.fixtures.jwtService()
+                    .generateRefreshToken(UserDetailsImpl.build(benchmark.fixtures.user())).getTokenValue();
+        }
+
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.sonastan.jwt_auth.benchmark;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.password.CompromisedPasswordChecker;
+import org.springframework.security.authentication.password.CompromisedPasswordDecision;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.sonastan.jwt_auth.application.event.OutboxEventWriter;
+import com.sonastan.jwt_auth.application.service.JwtService;
+import com.sonastan.jwt_auth.application.service.RoleService;
+import com.sonastan.jwt_auth.application.service.SecurityVersionService;
+import com.sonastan.jwt_auth.application.service.TokenRevocationService;
+import com.sonastan.jwt_auth.application.service.UserActivityService;
+import com.sonastan.jwt_auth.application.service.UserService;
+import com.sonastan.jwt_auth.domain.event.user.UserCreatedEvent;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+import com.sonastan.jwt_auth.domain.service.JwtServiceImpl;
+import com.sonastan.jwt_auth.domain.service.SecurityVersionServiceImpl;
+import com.sonastan.jwt_auth.domain.service.TokenRevocationServiceImpl;
+import com.sonastan.jwt_auth.domain.service.UserActivityServiceImpl;
+import com.sonastan.jwt_auth.domain.service.UserServiceImpl;
+import com.sonastan.jwt_auth.infrastructure.constants.JwtSigningAlgorithm;
+import com.sonastan.jwt_auth.infrastructure.constants.PasswordHashAlgorithm;
+import com.sonastan.jwt_auth.infrastructure.constants.RefreshMode;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.infrastructure.persistence.UserActivityProperties;
+import com.sonastan.jwt_auth.infrastructure.security.WebSecurityConfig;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtDecoderCacheProperties;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtRefreshProperties;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtRevocationProperties;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtSigningKey;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtSigningProperties;
+import com.sonastan.jwt_auth.infrastructure.security.login.LoginThrottle;
+import com.sonastan.jwt_auth.infrastructure.security.login.LoginThrottleProperties;
+import com.sonastan.jwt_auth.infrastructure.security.password.PasswordHashingProperties;
+import com.sonastan.jwt_auth.infrastructure.security.user.UserCacheProperties;
+import com.sonastan.jwt_auth.infrastructure.security.user.UserDetailsServiceImpl;
+import com.sonastan.jwt_auth.interfaces.rest.controller.AuthController;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Wires the production beans by hand, the same way the Spring context does,
+ * but on top of {@link InMemoryUserRepository}.
+ */
+public class BenchmarkFixtures {
+
+    public static final String USERNAME = "benchmark";
+
+    public static final String PASSWORD = "BenchUser1234!";
+
+    private static final CompromisedPasswordChecker NOT_COMPROMISED = password -> new CompromisedPasswordDecision(
+            false);
+
+    private final BenchmarkSecurityConfig securityConfig = new BenchmarkSecurityConfig();
+
+    private final UserRepository userRepository = InMemoryUserRepository.create();
+
+    private final Role role = new Role(UserRole.ROLE_USER);
+
+    private final RoleService roleService = new RoleService() {
+
+        @Override
+        public Optional<Role> findByRolename(UserRole rolename) {
+            return Optional.of(role).filter(r -> r.getRolename() == rolename);
+        }
+
+        @Override
+        public void reload() {
+        }
+    };
+
+    private final PasswordHashingProperties hashingProperties = new PasswordHashingProperties(0, 1024,
+            Duration.ofSeconds(1), PasswordHashAlgorithm.valueOf(System.getProperty("password.algorithm", "BCRYPT")),
+            Duration.ZERO, 1000, Duration.ofSeconds(1));
+
+    private final PasswordEncoder passwordEncoder = securityConfig.passwordEncoder(hashingProperties,
+            new SimpleMeterRegistry());
+
+    private final JwtSigningKey signingKey = securityConfig.jwtSigningKey(new JwtSigningProperties(
+            JwtSigningAlgorithm.valueOf(System.getProperty("jwt.signing.algorithm", "RS256")),
+            new ClassPathResource(System.getProperty("jwt.signing.key-location", "keys/private.pem"))));
+
+    private final JwtEncoder jwtEncoder = securityConfig.encoder(signingKey);
+
+    private final JwtDecoder jwtDecoder = securityConfig.decoder(signingKey, new JwtDecoderCacheProperties(10_000),
+            new SimpleMeterRegistry());
+
+    private final JwtRefreshProperties refreshProperties = new JwtRefreshProperties(
+            RefreshMode.valueOf(System.getProperty("jwt.refresh.mode", "DATABASE")), Duration.ofHours(1),
+            Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(1));
+
+    // no security version changes on the measured paths, and nothing schedules the sync, so no change log is needed
+    private final SecurityVersionService securityVersionService = new SecurityVersionServiceImpl(userRepository,
+            null, refreshProperties);
+
+    private final TokenRevocationService tokenRevocationService = new TokenRevocationServiceImpl(
+            InMemoryRevokedTokenRepository.create(),
+            new JwtRevocationProperties(Duration.ofMinutes(10), 100_000, 0.01, Duration.ofSeconds(5),
+                    Duration.ofSeconds(30), Duration.ofMinutes(1)));
+
+    // registration writes its UserCreatedEvent to the outbox, the dispatcher is measured by OutboxBenchmark
+    private final OutboxEventWriter outboxEventWriter = new OutboxEventWriter(InMemoryOutboxEventRepository.create());
+
+    private final UserService userService = new UserServiceImpl(userRepository, roleService,
+            passwordEncoder, event -> outboxEventWriter.onUserCreated((UserCreatedEvent) event), NOT_COMPROMISED,
+            securityVersionService, TransactionOperations.withoutTransaction(),
+            new UserCacheProperties(10_000, Duration.ofMinutes(1)), new SimpleMeterRegistry());
+
+    private final UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(userService);
+
+    private final AuthenticationManager authenticationManager = securityConfig
+            .authenticationManager(passwordEncoder, userDetailsService, userDetailsService, hashingProperties);
+
+    private final JwtService jwtService = new JwtServiceImpl(jwtEncoder, jwtDecoder, userService,
+            securityVersionService, tokenRevocationService, refreshProperties);
+
+    // counts every login like the application, but never rejects one
+    private final LoginThrottle loginThrottle = securityConfig.loginThrottle(new LoginThrottleProperties(true,
+            Duration.ofMinutes(1), Integer.MAX_VALUE, Integer.MAX_VALUE, 100_000), new SimpleMeterRegistry());
+
+    // records every login like the application, but never flushes: the benchmarks log in one user, far below
+    // the flush size, and nothing schedules the periodic flush, so no repository is needed
+    private final UserActivityService userActivityService = new UserActivityServiceImpl(null,
+            TransactionOperations.withoutTransaction(), new ConcurrentTaskScheduler(),
+            new UserActivityProperties(Duration.ofSeconds(5), Integer.MAX_VALUE), new SimpleMeterRegistry());
+
+    private final AuthController authController = new AuthController(authenticationManager, jwtService,
+            loginThrottle, userActivityService);
+
+    private final User user;
+
+    public BenchmarkFixtures() {
+        user = userRepository.save(new User(USERNAME, "benchmark@example.com", passwordEncoder.encode(PASSWORD),
+                "Bench", "Mark", role));
+    }
+
+    public User user() {
+        return user;
+    }
+
+    public UserService userService() {
+        return userService;
+    }
+
+    /**
+     * Calls made to the user repository so far, each one a database round trip
+     * in the application.
+     */
+    public long userRepositoryCalls() {
+        return InMemoryUserRepository.invocations(userRepository);
+    }
+
+    public PasswordEncoder passwordEncoder() {
+        return passwordEncoder;
+    }
+
+    public JwtDecoder jwtDecoder() {
+        return jwtDecoder;
+    }
+
+    public JwtDecoder uncachedJwtDecoder() {
+        return signingKey.jwtDecoder();
+    }
+
+    public JwtService jwtService() {
+        return jwtService;
+    }
+
+    public AuthController authController() {
+        return authController;
+    }
+
+    private static final class BenchmarkSecurityConfig extends WebSecurityConfig {
+
+        @Override
+        protected JwtSigningKey jwtSigningKey(JwtSigningProperties properties) {
+            return super.jwtSigningKey(properties);
+        }
+
+        @Override
+        protected JwtEncoder encoder(JwtSigningKey signingKey) {
+            return super.encoder(signingKey);
+        }
+
+        @Override
+        protected JwtDecoder decoder(JwtSigningKey signingKey, JwtDecoderCacheProperties cacheProperties,
+                MeterRegistry meterRegistry) {
+            return super.decoder(signingKey, cacheProperties, meterRegistry);
+        }
+
+        @Override
+        protected LoginThrottle loginThrottle(LoginThrottleProperties properties, MeterRegistry meterRegistry) {
+            return super.loginThrottle(properties, meterRegistry);
+        }
+
+        @Override
+        protected PasswordEncoder passwordEncoder(PasswordHashingProperties properties,
+                MeterRegistry meterRegistry) {
+            return super.passwordEncoder(properties, meterRegistry);
+        }
+
+        @Override
+        protected AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder,
+                UserDetailsService userDetailsService, UserDetailsPasswordService userDetailsPasswordService,
+                PasswordHashingProperties hashingProperties) {
+            return super.authenticationManager(passwordEncoder, userDetailsService, userDetailsPasswordService,
+                    hashingProperties);
+        }
+
+    }
+
+}
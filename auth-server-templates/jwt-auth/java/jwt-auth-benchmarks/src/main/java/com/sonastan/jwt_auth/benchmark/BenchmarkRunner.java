@@ -0,0 +1,30 @@
+package com.sonastan.jwt_auth.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * Runs the JMH suites and writes the results as JSON unless a result format is
+ * passed explicitly, so runs of different releases can be diffed.
+ */
+public class BenchmarkRunner {
+
+    static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(List.of(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.addAll(List.of("-rf", "json"));
+        }
+        if (!jmhArgs.contains("-rff")) {
+            jmhArgs.addAll(List.of("-rff", DEFAULT_RESULT_FILE));
+        }
+        Main.main(jmhArgs.toArray(String[]::new));
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.sonastan.jwt_auth.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.data.domain.Limit;
+
+import com.sonastan.jwt_auth.domain.model.OutboxEvent;
+import com.sonastan.jwt_auth.domain.repository.OutboxEventRepository;
+
+/**
+ * Map backed stand-in for {@link OutboxEventRepository}, ordered by id like
+ * the dispatcher reads the table. Only the methods used on the measured paths
+ * are supported, and every call is counted as one database round trip.
+ */
+public final class InMemoryOutboxEventRepository implements InvocationHandler {
+
+    private final NavigableMap<Long, OutboxEvent> events = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong outboxEventIds = new AtomicLong();
+
+    private final LongAdder invocations = new LongAdder();
+
+    private InMemoryOutboxEventRepository() {
+    }
+
+    public static OutboxEventRepository create() {
+        return (OutboxEventRepository) Proxy.newProxyInstance(OutboxEventRepository.class.getClassLoader(),
+                new Class<?>[] { OutboxEventRepository.class }, new InMemoryOutboxEventRepository());
+    }
+
+    public static long invocations(OutboxEventRepository outboxEventRepository) {
+        return ((InMemoryOutboxEventRepository) Proxy.getInvocationHandler(outboxEventRepository)).invocations.sum();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        if (method.getDeclaringClass() != Object.class) {
+            invocations.increment();
+        }
+        return switch (method.getName()) {
+            case "save" -> save((OutboxEvent) args[0]);
+            case "findBatchForDispatch" -> events.values().stream()
+                    .filter(event -> event.getAttempts() < (int) args[0])
+                    .limit(((Limit) args[1]).max())
+                    .toList();
+            case "findForDispatchById" -> Optional.ofNullable(events.get((Long) args[0]));
+            case "incrementAttempts" -> incrementAttempts((Long) args[0]);
+            case "delete" -> {
+                events.remove(((OutboxEvent) args[0]).getOutboxEventId());
+                yield null;
+            }
+            case "deleteAllInBatch" -> {
+                ((Iterable<OutboxEvent>) args[0]).forEach(event -> events.remove(event.getOutboxEventId()));
+                yield null;
+            }
+            case "count" -> (long) events.size();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryOutboxEventRepository" + events.keySet();
+            default -> throw new UnsupportedOperationException(method.getName() + " is not supported in benchmarks");
+        };
+    }
+
+    private OutboxEvent save(OutboxEvent event) {
+        event.setOutboxEventId(outboxEventIds.incrementAndGet());
+        events.put(event.getOutboxEventId(), event);
+        return event;
+    }
+
+    private int incrementAttempts(Long outboxEventId) {
+        OutboxEvent event = events.get(outboxEventId);
+        if (event == null) {
+            return 0;
+        }
+        event.setAttempts(event.getAttempts() + 1);
+        return 1;
+    }
+
+}
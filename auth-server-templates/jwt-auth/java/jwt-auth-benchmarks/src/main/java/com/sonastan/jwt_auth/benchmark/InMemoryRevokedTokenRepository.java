@@ -0,0 +1,57 @@
+package com.sonastan.jwt_auth.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.sonastan.jwt_auth.domain.model.RevokedToken;
+import com.sonastan.jwt_auth.domain.repository.RevokedTokenRepository;
+
+/**
+ * Map backed stand-in for {@link RevokedTokenRepository}, including the unique
+ * jti constraint. Only the methods used on the measured paths are supported.
+ */
+public final class InMemoryRevokedTokenRepository implements InvocationHandler {
+
+    private final Map<String, RevokedToken> revokedTokensByJti = new ConcurrentHashMap<>();
+
+    private final AtomicLong revokedTokenIds = new AtomicLong();
+
+    private InMemoryRevokedTokenRepository() {
+    }
+
+    public static RevokedTokenRepository create() {
+        return (RevokedTokenRepository) Proxy.newProxyInstance(RevokedTokenRepository.class.getClassLoader(),
+                new Class<?>[] { RevokedTokenRepository.class }, new InMemoryRevokedTokenRepository());
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "existsByJti" -> revokedTokensByJti.containsKey((String) args[0]);
+            case "saveAndFlush", "save" -> save((RevokedToken) args[0]);
+            case "findRevokedAfter", "findTop1000ByExpiresAtBeforeOrderByExpiresAtAsc" ->
+                List.of();
+            case "count" -> (long) revokedTokensByJti.size();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryRevokedTokenRepository" + revokedTokensByJti.keySet();
+            default -> throw new UnsupportedOperationException(method.getName() + " is not supported in benchmarks");
+        };
+    }
+
+    private RevokedToken save(RevokedToken revokedToken) {
+        revokedToken.setRevokedTokenId(revokedTokenIds.incrementAndGet());
+        if (revokedTokensByJti.putIfAbsent(revokedToken.getJti(), revokedToken) != null) {
+            throw new DataIntegrityViolationException("Duplicate jti: " + revokedToken.getJti());
+        }
+        return revokedToken;
+    }
+
+}
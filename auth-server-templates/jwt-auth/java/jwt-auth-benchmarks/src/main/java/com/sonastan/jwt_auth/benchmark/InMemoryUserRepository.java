@@ -0,0 +1,173 @@
+package com.sonastan.jwt_auth.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.model.UserDetailsView;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+
+/**
+ * Map backed stand-in for {@link UserRepository} so the benchmarks run without
+ * a database. Only the methods used on the measured paths are supported. Every
+ * call is counted as one database round trip, and the unique constraints of
+ * the users table are enforced like the database does.
+ */
+public final class InMemoryUserRepository implements InvocationHandler {
+
+    private final Map<String, User> usersByUsername = new ConcurrentHashMap<>();
+
+    private final Map<UUID, User> usersByUuid = new ConcurrentHashMap<>();
+
+    private final AtomicLong userIds = new AtomicLong();
+
+    private final LongAdder invocations = new LongAdder();
+
+    private InMemoryUserRepository() {
+    }
+
+    public static UserRepository create() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[] { UserRepository.class }, new InMemoryUserRepository());
+    }
+
+    public static long invocations(UserRepository userRepository) {
+        return ((InMemoryUserRepository) Proxy.getInvocationHandler(userRepository)).invocations.sum();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        if (method.getDeclaringClass() != Object.class) {
+            invocations.increment();
+        }
+        return switch (method.getName()) {
+            case "findByUsername" -> Optional.ofNullable(usersByUsername.get((String) args[0]));
+            case "findByUserUuid" -> Optional.ofNullable(usersByUuid.get((UUID) args[0]));
+            case "findDetailsByUsername" -> Optional.ofNullable(usersByUsername.get((String) args[0])).map(this::view);
+            case "findDetailsByUserUuid" -> Optional.ofNullable(usersByUuid.get((UUID) args[0])).map(this::view);
+            case "existsByUsername" -> usersByUsername.containsKey((String) args[0]);
+            case "existsByEmail" -> usersByUsername.values().stream().anyMatch(u -> u.getEmail().equals(args[0]));
+            case "deleteByUserUuid" -> delete((UUID) args[0]);
+            case "save", "saveAndFlush" -> save((User) args[0]);
+            case "count" -> (long) usersByUuid.size();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryUserRepository" + usersByUuid.keySet();
+            default -> throw new UnsupportedOperationException(method.getName() + " is not supported in benchmarks");
+        };
+    }
+
+    private User save(User user) {
+        User byUsername = usersByUsername.get(user.getUsername());
+        if (byUsername != null && !byUsername.getUserUuid().equals(user.getUserUuid())) {
+            throw uniqueViolation(User.USERNAME_CONSTRAINT);
+        }
+        if (usersByUuid.values().stream().anyMatch(
+                u -> u.getEmail().equals(user.getEmail()) && !u.getUserUuid().equals(user.getUserUuid()))) {
+            throw uniqueViolation(User.EMAIL_CONSTRAINT);
+        }
+        if (user.getUserId() == null) {
+            user.setUserId(userIds.incrementAndGet());
+        }
+        usersByUsername.put(user.getUsername(), user);
+        usersByUuid.put(user.getUserUuid(), user);
+        return user;
+    }
+
+    private UserDetailsView view(User user) {
+        return new UserDetailsView() {
+
+            @Override
+            public Long getUserId() {
+                return user.getUserId();
+            }
+
+            @Override
+            public UUID getUserUuid() {
+                return user.getUserUuid();
+            }
+
+            @Override
+            public String getUsername() {
+                return user.getUsername();
+            }
+
+            @Override
+            public String getEmail() {
+                return user.getEmail();
+            }
+
+            @Override
+            public String getPassword() {
+                return user.getPassword();
+            }
+
+            @Override
+            public String getFirstname() {
+                return user.getFirstname();
+            }
+
+            @Override
+            public String getLastname() {
+                return user.getLastname();
+            }
+
+            @Override
+            public boolean isEnabled() {
+                return user.isEnabled();
+            }
+
+            @Override
+            public boolean isCredentialsNonExpired() {
+                return user.isCredentialsNonExpired();
+            }
+
+            @Override
+            public boolean isAccountNonLocked() {
+                return user.isAccountNonLocked();
+            }
+
+            @Override
+            public boolean isAccountNonExpired() {
+                return user.isAccountNonExpired();
+            }
+
+            @Override
+            public long getSecurityVersion() {
+                return user.getSecurityVersion();
+            }
+
+            @Override
+            public UserRole getRolename() {
+                return user.getRole().getRolename();
+            }
+        };
+    }
+
+    private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        String message = "duplicate key value violates unique constraint \"" + constraintName + "\"";
+        return new DataIntegrityViolationException(message,
+                new ConstraintViolationException(message, null, constraintName));
+    }
+
+    private int delete(UUID userUuid) {
+        User user = usersByUuid.remove(userUuid);
+        if (user == null) {
+            return 0;
+        }
+        usersByUsername.remove(user.getUsername());
+        return 1;
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.sonastan.jwt_auth.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.sonastan.jwt_auth.infrastructure.constants.JwtType;
+import com.sonastan.jwt_auth.infrastructure.security.user.UserDetailsImpl;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private BenchmarkFixtures fixtures;
+
+    private UserDetails userDetails;
+
+    private String accessToken;
+
+    private Jwt refreshToken;
+
+    @Setup
+    public void setUp() {
+        fixtures = new BenchmarkFixtures();
+        userDetails = UserDetailsImpl.build(fixtures.user());
+        accessToken = fixtures.jwtService().generateAccessToken(userDetails).getTokenValue();
+        refreshToken = fixtures.jwtService().generateRefreshToken(userDetails);
+    }
+
+    @Benchmark
+    public Jwt generateAccessToken() {
+        return fixtures.jwtService().generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public Jwt generateRefreshToken() {
+        return fixtures.jwtService().generateRefreshToken(userDetails);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return fixtures.jwtDecoder().decode(accessToken);
+    }
+
+    @Benchmark
+    public Jwt decodeUncached() {
+        return fixtures.uncachedJwtDecoder().decode(accessToken);
+    }
+
+    @Benchmark
+    public Jwt validateToken() {
+        return fixtures.jwtService().validateToken(accessToken, JwtType.ACCESS);
+    }
+
+    @Benchmark
+    public Jwt refreshAccessToken() {
+        return fixtures.jwtService().refreshAccessToken(refreshToken);
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.sonastan.jwt_auth.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test for {@code /v1/auth/login} and {@code /v1/user/create}
+ * against a running jwt-auth instance. Every client is a virtual thread that
+ * sends the next request as soon as the previous one completed.
+ * <p>
+ * Run it once against an instance started with the default (platform thread)
+ * configuration and once against one started with
+ * {@code --spring.profiles.active=virtual}, then compare the reports. Both
+ * need {@code --login-throttle.enabled=false}, as all logins are made by one
+ * user:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.sonastan.jwt_auth.benchmark.LoadTest [baseUrl] [clients] [seconds]
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final String PASSWORD = "LoadTest1234!";
+
+    private final HttpClient client;
+
+    private final URI baseUrl;
+
+    private final String csrfToken;
+
+    private LoadTest(URI baseUrl) throws Exception {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.csrfToken = fetchCsrfToken();
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI baseUrl = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+
+        LoadTest loadTest = new LoadTest(baseUrl);
+        String username = loadTest.uniqueUsername();
+        int status = loadTest.createUser(username);
+        if (status != 201) {
+            throw new IllegalStateException("Failed to create the login user, status " + status);
+        }
+
+        System.out.printf("%s, %d clients, %ds per endpoint%n", baseUrl, clients, duration.toSeconds());
+        loadTest.run("POST /v1/auth/login", clients, duration, () -> loadTest.login(username)).print();
+        loadTest.run("POST /v1/user/create", clients, duration, () -> loadTest.createUser(loadTest.uniqueUsername()))
+                .print();
+    }
+
+    private Report run(String name, int clients, Duration duration, Call call) throws InterruptedException {
+        Report report = new Report(name, duration);
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                executor.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = call.execute();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        report.record(status, System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+        return report;
+    }
+
+    private int login(String username) throws Exception {
+        return post("/v1/auth/login", """
+                {"username":"%s","password":"%s"}""".formatted(username, PASSWORD));
+    }
+
+    private int createUser(String username) throws Exception {
+        return post("/v1/user/create", """
+                {"username":"%s","email":"%s@example.com","firstname":"Load","lastname":"Test",\
+                "password":"%s","rePassword":"%s"}""".formatted(username, username, PASSWORD, PASSWORD));
+    }
+
+    private int post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Cookie", "XSRF-TOKEN=" + csrfToken)
+                .header("X-XSRF-TOKEN", csrfToken)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private String fetchCsrfToken() throws Exception {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(baseUrl.resolve("/v1/auth/csrf")).build(),
+                HttpResponse.BodyHandlers.discarding());
+        return response.headers().allValues("Set-Cookie").stream()
+                .filter(cookie -> cookie.startsWith("XSRF-TOKEN="))
+                .map(cookie -> cookie.substring("XSRF-TOKEN=".length()).split(";", 2)[0])
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No XSRF-TOKEN cookie returned"));
+    }
+
+    private String uniqueUsername() {
+        return "load" + UUID.randomUUID().toString().replace("-", "").substring(0, 20);
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        int execute() throws Exception;
+    }
+
+    private static final class Report {
+
+        private final String name;
+
+        private final Duration duration;
+
+        private final Map<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+
+        private final List<Long> latencies = new ArrayList<>();
+
+        private Report(String name, Duration duration) {
+            this.name = name;
+            this.duration = duration;
+        }
+
+        private void record(int status, long latencyNanos) {
+            statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+            synchronized (latencies) {
+                latencies.add(latencyNanos);
+            }
+        }
+
+        private void print() {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            System.out.printf("%n%s%n", name);
+            System.out.printf("  requests   %d (%.1f/s)%n", sorted.length, sorted.length / (double) duration.toSeconds());
+            System.out.printf("  statuses   %s%n", statuses);
+            System.out.printf("  latency ms p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n", percentile(sorted, 0.5),
+                    percentile(sorted, 0.9), percentile(sorted, 0.99), percentile(sorted, 1.0));
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.sonastan.jwt_auth.benchmark;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.sonastan.jwt_auth.application.event.OutboxEventSubscriber;
+import com.sonastan.jwt_auth.application.event.OutboxEventWriter;
+import com.sonastan.jwt_auth.domain.event.user.UserCreatedEvent;
+import com.sonastan.jwt_auth.domain.model.OutboxEvent;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.repository.OutboxEventRepository;
+import com.sonastan.jwt_auth.domain.service.OutboxDispatcherImpl;
+import com.sonastan.jwt_auth.infrastructure.constants.OutboxEventType;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.infrastructure.persistence.OutboxProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Writes a backlog of {@code UserCreatedEvent}s to the outbox and drains it
+ * with the dispatcher per invocation, for several batch sizes. The secondary
+ * results {@code events} and {@code repositoryCalls} count the delivered
+ * events and the repository calls of the dispatcher, each a database round
+ * trip in the application: {@code events} is the throughput of the outbox in
+ * events per second, and their ratio shows how the batch size amortizes the
+ * round trips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class OutboxBenchmark {
+
+    private static final int BACKLOG = 1_000;
+
+    @Param({ "1", "10", "100", "1000" })
+    public int batchSize;
+
+    private OutboxEventRepository outboxEventRepository;
+
+    private OutboxEventWriter outboxEventWriter;
+
+    private OutboxDispatcherImpl outboxDispatcher;
+
+    private User user;
+
+    // written by the subscriber, so its work is not eliminated
+    private long handled;
+
+    @Setup
+    public void setUp() {
+        outboxEventRepository = InMemoryOutboxEventRepository.create();
+        outboxEventWriter = new OutboxEventWriter(outboxEventRepository);
+        OutboxEventSubscriber subscriber = new OutboxEventSubscriber() {
+
+            @Override
+            public OutboxEventType eventType() {
+                return OutboxEventType.USER_CREATED;
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                handled += event.getAggregateId();
+            }
+        };
+        outboxDispatcher = new OutboxDispatcherImpl(outboxEventRepository, TransactionOperations.withoutTransaction(),
+                List.of(subscriber), new OutboxProperties(Duration.ofSeconds(1), batchSize, 10),
+                new SimpleMeterRegistry());
+        user = new User(BenchmarkFixtures.USERNAME, "benchmark@example.com", BenchmarkFixtures.PASSWORD, "Bench",
+                "Mark", new Role(UserRole.ROLE_USER));
+        user.setUserId(1L);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Dispatched {
+
+        public long events;
+
+        public long repositoryCalls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            events = 0;
+            repositoryCalls = 0;
+        }
+    }
+
+    @Benchmark
+    public int writeAndDispatch(Dispatched dispatched) {
+        for (int i = 0; i < BACKLOG; i++) {
+            outboxEventWriter.onUserCreated(new UserCreatedEvent(user));
+        }
+        long calls = InMemoryOutboxEventRepository.invocations(outboxEventRepository);
+        int events = outboxDispatcher.dispatch();
+        dispatched.repositoryCalls += InMemoryOutboxEventRepository.invocations(outboxEventRepository) - calls;
+        dispatched.events += events;
+        return events;
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.sonastan.jwt_auth.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private BenchmarkFixtures fixtures;
+
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        fixtures = new BenchmarkFixtures();
+        encodedPassword = fixtures.user().getPassword();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return fixtures.passwordEncoder().matches(BenchmarkFixtures.PASSWORD, encodedPassword);
+    }
+
+    @Benchmark
+    public String encode() {
+        return fixtures.passwordEncoder().encode(BenchmarkFixtures.PASSWORD);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.sonastan.jwt_auth.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Registers a new user per invocation. Besides the time, the secondary results
+ * {@code repositoryCalls} and {@code signups} count the user repository calls,
+ * each a database round trip in the application, so their ratio is the number
+ * of round trips per signup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    private final AtomicLong users = new AtomicLong();
+
+    private BenchmarkFixtures fixtures;
+
+    @Setup
+    public void setUp() {
+        fixtures = new BenchmarkFixtures();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+
+        public long repositoryCalls;
+
+        public long signups;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            repositoryCalls = 0;
+            signups = 0;
+        }
+    }
+
+    @Benchmark
+    public UserDetails register(RoundTrips roundTrips) {
+        long user = users.incrementAndGet();
+        long calls = fixtures.userRepositoryCalls();
+        UserDetails userDetails = fixtures.userService().registerUser("user" + user, BenchmarkFixtures.PASSWORD,
+                BenchmarkFixtures.PASSWORD, "user" + user + "@example.com", "Bench", "Mark");
+        roundTrips.repositoryCalls += fixtures.userRepositoryCalls() - calls;
+        roundTrips.signups++;
+        return userDetails;
+    }
+
+}
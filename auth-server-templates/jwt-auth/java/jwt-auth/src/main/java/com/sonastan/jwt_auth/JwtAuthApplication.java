@@ -4,8 +4,10 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.sonastan.jwt_auth.application.service.RoleService;
 import com.sonastan.jwt_auth.domain.model.Role;
 import com.sonastan.jwt_auth.domain.model.User;
 import com.sonastan.jwt_auth.domain.repository.RoleRepository;
@@ -21,6 +23,7 @@ import io.swagger.v3.oas.annotations.servers.Server;
 import lombok.extern.slf4j.Slf4j;
 
 @SpringBootApplication
+@EnableScheduling
 @Slf4j
 @OpenAPIDefinition(info = @Info(title = "API", description = "Documentation for all API endpoints of this project", version = "1.0"), servers = {
 		@Server(description = "DEV ENV", url = "http://localhost:8080") })
@@ -32,8 +35,8 @@ public class JwtAuthApplication {
 	}
 
 	@Bean
-	protected CommandLineRunner init(RoleRepository roleRepository, UserRepository userRepository,
-			PasswordEncoder passwordEncoder) {
+	protected CommandLineRunner init(RoleRepository roleRepository, RoleService roleService,
+			UserRepository userRepository, PasswordEncoder passwordEncoder) {
 		return args -> {
 
 			if (!roleRepository.existsByRolename(UserRole.ROLE_ADMIN)) {
@@ -52,6 +55,8 @@ public class JwtAuthApplication {
 				roleRepository.save(new Role(UserRole.ROLE_USER));
 			}
 
+			roleService.reload();
+
 		};
 	}
 
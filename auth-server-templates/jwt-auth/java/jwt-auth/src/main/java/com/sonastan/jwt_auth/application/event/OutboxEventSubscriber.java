@@ -0,0 +1,22 @@
+package com.sonastan.jwt_auth.application.event;
+
+import com.sonastan.jwt_auth.domain.model.OutboxEvent;
+import com.sonastan.jwt_auth.infrastructure.constants.OutboxEventType;
+
+/**
+ * Receives the outbox events of one type from the
+ * {@link com.sonastan.jwt_auth.application.service.OutboxDispatcher}.
+ * <p>
+ * Delivery is at least once: an event is only deleted once the transaction
+ * that delivered it committed, so after a failure or a crash it is delivered
+ * again, also to the subscribers that already handled it. Handlers must
+ * therefore be idempotent. They run in the transaction of the dispatcher, and
+ * an exception rolls back the delivery to all subscribers of the event.
+ */
+public interface OutboxEventSubscriber {
+
+    OutboxEventType eventType();
+
+    void handle(OutboxEvent event);
+
+}
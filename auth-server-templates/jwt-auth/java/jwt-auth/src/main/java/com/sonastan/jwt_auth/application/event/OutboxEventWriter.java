@@ -0,0 +1,30 @@
+package com.sonastan.jwt_auth.application.event;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sonastan.jwt_auth.domain.event.user.UserCreatedEvent;
+import com.sonastan.jwt_auth.domain.model.OutboxEvent;
+import com.sonastan.jwt_auth.domain.repository.OutboxEventRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Stores domain events in the outbox. The event has to be published in the
+ * transaction of the change, so it is committed or rolled back with it.
+ */
+@RequiredArgsConstructor
+@Component
+public class OutboxEventWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUserCreated(UserCreatedEvent event) {
+        outboxEventRepository.save(OutboxEvent.userCreated(event.user()));
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.sonastan.jwt_auth.application.event;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sonastan.jwt_auth.application.service.RoleService;
+import com.sonastan.jwt_auth.domain.model.Role;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reloads the role table once the transaction that changed a role committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoleEntityListener {
+
+    // the listener is created while the EntityManagerFactory is built, before the RoleService can exist
+    private final ObjectProvider<RoleService> roleService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onRoleChanged(Role role) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    roleService.getObject().reload();
+                }
+            });
+        } else {
+            roleService.getObject().reload();
+        }
+    }
+
+}
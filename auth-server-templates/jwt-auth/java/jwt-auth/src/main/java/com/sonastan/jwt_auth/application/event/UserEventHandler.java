@@ -1,27 +1,51 @@
 package com.sonastan.jwt_auth.application.event;
 
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.sonastan.jwt_auth.domain.event.user.UserCreatedEvent;
+import com.sonastan.jwt_auth.domain.model.OutboxEvent;
 import com.sonastan.jwt_auth.domain.model.Profile;
 import com.sonastan.jwt_auth.domain.repository.ProfileRepository;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.OutboxEventType;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Creates the profile of a registered user from its outbox event. The profile
+ * shares the id of the user, so an event delivered again finds the profile and
+ * is skipped.
+ */
 @RequiredArgsConstructor
 @Slf4j
 @Component
-public class UserEventHandler {
+public class UserEventHandler implements OutboxEventSubscriber {
 
     private final ProfileRepository profileRepository;
 
-    @EventListener
-    public void handleUserCreatedEvent(UserCreatedEvent event) {
-        log.info("Handling UserCreatedEvent for user: {}", event.user().getUsername());
-        Profile profile = new Profile(event.user());
-        profileRepository.save(profile);
+    private final UserRepository userRepository;
+
+    @Override
+    public OutboxEventType eventType() {
+        return OutboxEventType.USER_CREATED;
+    }
+
+    // the profile shares the id of the user, so it needs a user managed by this transaction
+    @Override
+    @Transactional
+    public void handle(OutboxEvent event) {
+        Long userId = event.getAggregateId();
+        if (profileRepository.existsById(userId)) {
+            log.debug("Profile of user {} already exists", event.getAggregateUuid());
+            return;
+        }
+        if (!userRepository.existsById(userId)) {
+            log.info("User {} was deleted before its profile was created", event.getAggregateUuid());
+            return;
+        }
+        log.info("Creating profile for user: {}", event.getAggregateUuid());
+        profileRepository.save(new Profile(userRepository.getReferenceById(userId)));
     }
 
 }
@@ -13,7 +13,7 @@ public class UserMapper {
     public static UserResponseDto mapUserDetailsToUserResponseDto(UserDetails userDetails) {
         if (userDetails instanceof UserDetailsImpl userDetailsImpl) {
             return new UserResponseDto(
-                    userDetailsImpl.getUserUuid(),
+                    userDetailsImpl.getUserUuid().toString(),
                     userDetailsImpl.getUsername(),
                     userDetailsImpl.getEmail(),
                     userDetailsImpl.getFirstname(),
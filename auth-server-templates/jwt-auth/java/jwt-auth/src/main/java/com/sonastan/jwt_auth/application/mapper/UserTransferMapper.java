@@ -0,0 +1,121 @@
+package com.sonastan.jwt_auth.application.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.sonastan.jwt_auth.domain.model.MigratedUser;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.interfaces.rest.dto.user.UserTransferDto;
+
+/**
+ * Maps users of an import or export to and from CSV lines. Fields containing a
+ * comma, a quote or a line break are quoted as in RFC 4180, quoted fields
+ * spanning several lines are not supported. The role and uuid fields are
+ * optional, lines without them or with empty values are read with both
+ * missing.
+ */
+public class UserTransferMapper {
+
+    public static final String CSV_HEADER = "username,email,password,firstname,lastname,role,userUuid";
+
+    private static final String CSV_HEADER_WITHOUT_IDS = "username,email,password,firstname,lastname";
+
+    private static final int CSV_FIELDS = 7;
+
+    private static final int CSV_FIELDS_WITHOUT_IDS = 5;
+
+    private UserTransferMapper() {
+    }
+
+    public static MigratedUser mapUserTransferDtoToMigratedUser(UserTransferDto userTransferDto) {
+        return new MigratedUser(
+                userTransferDto.username(),
+                userTransferDto.email(),
+                userTransferDto.password(),
+                userTransferDto.firstname(),
+                userTransferDto.lastname(),
+                userTransferDto.role(),
+                userTransferDto.userUuid());
+    }
+
+    public static UserTransferDto mapMigratedUserToUserTransferDto(MigratedUser migratedUser) {
+        return new UserTransferDto(
+                migratedUser.username(),
+                migratedUser.email(),
+                migratedUser.password(),
+                migratedUser.firstname(),
+                migratedUser.lastname(),
+                migratedUser.role(),
+                migratedUser.userUuid());
+    }
+
+    public static boolean isCsvHeader(String line) {
+        return line.equalsIgnoreCase(CSV_HEADER) || line.equalsIgnoreCase(CSV_HEADER_WITHOUT_IDS);
+    }
+
+    public static UserTransferDto mapCsvLineToUserTransferDto(String line) {
+        List<String> fields = new ArrayList<>(CSV_FIELDS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        if (quoted || fields.size() != CSV_FIELDS && fields.size() != CSV_FIELDS_WITHOUT_IDS) {
+            throw new IllegalArgumentException("Expected " + CSV_FIELDS_WITHOUT_IDS + " or " + CSV_FIELDS
+                    + " fields but got: " + line);
+        }
+        UserRole role = null;
+        UUID userUuid = null;
+        if (fields.size() == CSV_FIELDS) {
+            role = fields.get(5).isEmpty() ? null : UserRole.valueOf(fields.get(5));
+            userUuid = fields.get(6).isEmpty() ? null : UUID.fromString(fields.get(6));
+        }
+        return new UserTransferDto(fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4), role,
+                userUuid);
+    }
+
+    public static String mapUserTransferDtoToCsvLine(UserTransferDto userTransferDto) {
+        return Stream.of(
+                userTransferDto.username(),
+                userTransferDto.email(),
+                userTransferDto.password(),
+                userTransferDto.firstname(),
+                userTransferDto.lastname(),
+                userTransferDto.role() != null ? userTransferDto.role().name() : null,
+                userTransferDto.userUuid() != null ? userTransferDto.userUuid().toString() : null)
+                .map(UserTransferMapper::quote)
+                .collect(Collectors.joining(","));
+    }
+
+    private static String quote(String field) {
+        if (field == null) {
+            return "";
+        }
+        if (field.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+}
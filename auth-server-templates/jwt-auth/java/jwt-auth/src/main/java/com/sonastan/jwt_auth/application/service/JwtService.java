@@ -13,6 +13,10 @@ public interface JwtService {
 
     Jwt generateRefreshToken(UserDetails userDetails);
 
+    Jwt rotateRefreshToken(Jwt jwt);
+
     Jwt validateToken(String token, JwtType type);
 
+    Jwt validateToken(Jwt jwt, JwtType type);
+
 }
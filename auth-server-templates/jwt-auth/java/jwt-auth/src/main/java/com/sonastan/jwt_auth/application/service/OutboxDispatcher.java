@@ -0,0 +1,12 @@
+package com.sonastan.jwt_auth.application.service;
+
+public interface OutboxDispatcher {
+
+    /**
+     * Delivers the pending outbox events to their subscribers.
+     *
+     * @return the number of events delivered
+     */
+    int dispatch();
+
+}
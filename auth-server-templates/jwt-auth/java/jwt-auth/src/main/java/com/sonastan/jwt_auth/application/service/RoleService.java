@@ -0,0 +1,14 @@
+package com.sonastan.jwt_auth.application.service;
+
+import java.util.Optional;
+
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+
+public interface RoleService {
+
+    Optional<Role> findByRolename(UserRole rolename);
+
+    void reload();
+
+}
@@ -0,0 +1,13 @@
+package com.sonastan.jwt_auth.application.service;
+
+import java.util.UUID;
+
+public interface SecurityVersionService {
+
+    boolean isCurrent(UUID userUuid, long securityVersion);
+
+    long increment(UUID userUuid);
+
+    void revoke(UUID userUuid);
+
+}
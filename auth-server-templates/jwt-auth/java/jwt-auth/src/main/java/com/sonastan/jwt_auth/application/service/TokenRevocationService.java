@@ -0,0 +1,11 @@
+package com.sonastan.jwt_auth.application.service;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+public interface TokenRevocationService {
+
+    boolean isRevoked(Jwt jwt);
+
+    void revoke(Jwt jwt);
+
+}
@@ -0,0 +1,20 @@
+package com.sonastan.jwt_auth.application.service;
+
+import java.util.UUID;
+
+public interface UserActivityService {
+
+    /**
+     * Records a successful login. It is written to the user later, together
+     * with the other logins recorded meanwhile.
+     */
+    void recordLogin(UUID userUuid);
+
+    /**
+     * Writes the recorded logins.
+     *
+     * @return the number of users updated
+     */
+    int flush();
+
+}
@@ -0,0 +1,11 @@
+package com.sonastan.jwt_auth.application.service;
+
+import java.util.function.Consumer;
+
+import com.sonastan.jwt_auth.domain.model.MigratedUser;
+
+public interface UserExportService {
+
+    long exportUsers(Consumer<MigratedUser> consumer);
+
+}
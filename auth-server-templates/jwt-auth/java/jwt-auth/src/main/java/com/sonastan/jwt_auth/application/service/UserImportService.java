@@ -0,0 +1,12 @@
+package com.sonastan.jwt_auth.application.service;
+
+import java.util.stream.Stream;
+
+import com.sonastan.jwt_auth.domain.model.MigratedUser;
+import com.sonastan.jwt_auth.domain.model.UserImportResult;
+
+public interface UserImportService {
+
+    UserImportResult importUsers(Stream<MigratedUser> users);
+
+}
@@ -1,16 +1,26 @@
 package com.sonastan.jwt_auth.application.service;
 
+import java.util.UUID;
+
 import org.springframework.security.core.userdetails.UserDetails;
 
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+
 public interface UserService {
     UserDetails registerUser(String username, String password, String rePassword, String email, String firstName,
             String lastName);
 
-    UserDetails updateUser(String userUuid, String username, String email, String firstName, String lastName);
+    UserDetails updateUser(UUID userUuid, String username, String email, String firstName, String lastName);
+
+    void deleteUser(UUID userUuid);
+
+    void changePassword(UUID userUuid, String oldPassword, String password, String rePassword);
+
+    void changeRole(UUID userUuid, UserRole role);
 
-    void deleteUser(String userUuid);
+    boolean updatePassword(UUID userUuid, String oldPassword, String newPassword);
 
     UserDetails loadUserByUsername(String username);
 
-    UserDetails loadUserByUuid(String userUuid);
+    UserDetails loadUserByUuid(UUID userUuid);
 }
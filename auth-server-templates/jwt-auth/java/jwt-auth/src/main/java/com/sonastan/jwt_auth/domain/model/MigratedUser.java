@@ -0,0 +1,17 @@
+package com.sonastan.jwt_auth.domain.model;
+
+import java.util.UUID;
+
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+
+/**
+ * A user migrated from another identity provider. The password is the hash
+ * exported from there, in the {@code {id}hash} format of Spring Security's
+ * {@code DelegatingPasswordEncoder}, e.g. {@code {bcrypt}$2a$10$...}. The role
+ * and the uuid are kept, so tokens and references naming the user stay valid;
+ * when they are null the user gets {@link UserRole#ROLE_USER} and a new uuid.
+ */
+public record MigratedUser(String username, String email, String password, String firstname, String lastname,
+        UserRole role, UUID userUuid) {
+
+}
@@ -0,0 +1,64 @@
+package com.sonastan.jwt_auth.domain.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.sonastan.jwt_auth.infrastructure.constants.OutboxEventType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An event stored in the transaction of the change it describes, so it exists
+ * exactly when the change was committed. It refers to the changed aggregate by
+ * id only; subscribers load what they need.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    @Column(unique = true, nullable = false, updatable = false, name = "outbox_event_id")
+    private Long outboxEventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, name = "event_type")
+    private OutboxEventType eventType;
+
+    @Column(nullable = false, updatable = false, name = "aggregate_id")
+    private Long aggregateId;
+
+    @Column(nullable = false, updatable = false, name = "aggregate_uuid")
+    private UUID aggregateUuid;
+
+    @Column(nullable = false, updatable = false, name = "created_at")
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    public OutboxEvent(OutboxEventType eventType, Long aggregateId, UUID aggregateUuid) {
+        this.eventType = eventType;
+        this.aggregateId = aggregateId;
+        this.aggregateUuid = aggregateUuid;
+        this.createdAt = Instant.now();
+    }
+
+    public static OutboxEvent userCreated(User user) {
+        return new OutboxEvent(OutboxEventType.USER_CREATED, user.getUserId(), user.getUserUuid());
+    }
+
+}
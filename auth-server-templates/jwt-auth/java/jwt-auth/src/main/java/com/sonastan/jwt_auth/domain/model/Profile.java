@@ -2,15 +2,19 @@ package com.sonastan.jwt_auth.domain.model;
 
 import java.util.UUID;
 
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
 import com.sonastan.jwt_auth.infrastructure.security.SpringSecurityAuditorAware;
+import com.sonastan.jwt_auth.infrastructure.util.UuidV7;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import lombok.Data;
@@ -26,22 +30,26 @@ import lombok.ToString;
 @Table(name = "profiles")
 public class Profile extends AuditEntity {
 
+    /**
+     * The id of the user, shared through {@link #user}, so a user has no
+     * association to its profile that would have to be fetched with it.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(nullable = false, unique = true, updatable = false, name = "profile_id")
     private Long profileId;
 
     @Column(nullable = false, unique = true, updatable = false, name = "profile_uuid")
-    private String profileUuid;
+    private UUID profileUuid;
 
-    @OneToOne
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @JoinColumn(name = "user_fk", nullable = false)
     private User user;
 
     public Profile(User user) {
-        this.profileUuid = UUID.randomUUID().toString();
+        this.profileUuid = UuidV7.generate();
         this.user = user;
     }
 
@@ -0,0 +1,49 @@
+package com.sonastan.jwt_auth.domain.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at, revoked_token_id") })
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revoked_tokens_seq")
+    @SequenceGenerator(name = "revoked_tokens_seq", sequenceName = "revoked_tokens_seq", allocationSize = 50)
+    @Column(unique = true, nullable = false, updatable = false, name = "revoked_token_id")
+    private Long revokedTokenId;
+
+    @Column(unique = true, nullable = false, updatable = false)
+    private String jti;
+
+    @Column(nullable = false, updatable = false, name = "user_uuid")
+    private String userUuid;
+
+    @Column(nullable = false, updatable = false, name = "expires_at")
+    private Instant expiresAt;
+
+    @Column(nullable = false, updatable = false, name = "revoked_at")
+    private Instant revokedAt;
+
+    public RevokedToken(String jti, String userUuid, Instant expiresAt) {
+        this.jti = jti;
+        this.userUuid = userUuid;
+        this.expiresAt = expiresAt;
+        this.revokedAt = Instant.now();
+    }
+
+}
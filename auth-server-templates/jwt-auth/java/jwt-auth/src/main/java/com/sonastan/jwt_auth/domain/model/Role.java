@@ -2,9 +2,12 @@ package com.sonastan.jwt_auth.domain.model;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
+import com.sonastan.jwt_auth.application.event.RoleEntityListener;
 import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
 import com.sonastan.jwt_auth.infrastructure.security.SpringSecurityAuditorAware;
+import com.sonastan.jwt_auth.infrastructure.util.UuidV7;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -16,6 +19,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -23,7 +27,7 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Entity
-@EntityListeners(SpringSecurityAuditorAware.class)
+@EntityListeners({ SpringSecurityAuditorAware.class, RoleEntityListener.class })
 @NoArgsConstructor
 @Data
 @EqualsAndHashCode(callSuper = true)
@@ -31,12 +35,13 @@ import lombok.ToString;
 public class Role extends AuditEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "roles_seq")
+    @SequenceGenerator(name = "roles_seq", sequenceName = "roles_seq", allocationSize = 50)
     @Column(unique = true, nullable = false, updatable = false, name = "role_id")
     private Integer roleId;
 
     @Column(unique = true, nullable = false, updatable = false, name = "role_uuid")
-    private String roleUuid;
+    private UUID roleUuid;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -48,7 +53,7 @@ public class Role extends AuditEntity {
     private Set<User> users = new HashSet<>();
 
     public Role(UserRole rolename) {
-        this.roleUuid = java.util.UUID.randomUUID().toString();
+        this.roleUuid = UuidV7.generate();
         this.rolename = rolename;
     }
 }
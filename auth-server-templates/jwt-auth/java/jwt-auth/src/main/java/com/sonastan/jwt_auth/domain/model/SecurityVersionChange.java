@@ -0,0 +1,50 @@
+package com.sonastan.jwt_auth.domain.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A security version a user changed to. Deleted users are logged with
+ * {@link Long#MAX_VALUE}, so no refresh token of theirs is current anymore.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "security_version_changes", indexes = @Index(name = "idx_security_version_changes_changed_at",
+        columnList = "changed_at, security_version_change_id"))
+public class SecurityVersionChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "security_version_changes_seq")
+    @SequenceGenerator(name = "security_version_changes_seq", sequenceName = "security_version_changes_seq",
+            allocationSize = 50)
+    @Column(unique = true, nullable = false, updatable = false, name = "security_version_change_id")
+    private Long securityVersionChangeId;
+
+    @Column(nullable = false, updatable = false, name = "user_uuid")
+    private UUID userUuid;
+
+    @Column(nullable = false, updatable = false, name = "security_version")
+    private long securityVersion;
+
+    @Column(nullable = false, updatable = false, name = "changed_at")
+    private Instant changedAt;
+
+    public SecurityVersionChange(UUID userUuid, long securityVersion) {
+        this.userUuid = userUuid;
+        this.securityVersion = securityVersion;
+        this.changedAt = Instant.now();
+    }
+
+}
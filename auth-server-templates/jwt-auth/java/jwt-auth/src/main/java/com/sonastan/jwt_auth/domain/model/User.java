@@ -2,44 +2,60 @@ package com.sonastan.jwt_auth.domain.model;
 
 import java.util.UUID;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.sonastan.jwt_auth.infrastructure.security.SpringSecurityAuditorAware;
+import com.sonastan.jwt_auth.infrastructure.util.UuidV7;
 
-import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Entity
+@NamedEntityGraph(name = User.WITH_ROLE, attributeNodes = @NamedAttributeNode("role"))
 @EntityListeners(SpringSecurityAuditorAware.class)
 @NoArgsConstructor
 @Data
 @EqualsAndHashCode(callSuper = true)
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email") })
 public class User extends AuditEntity {
 
+    public static final String WITH_ROLE = "User.withRole";
+
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(unique = true, nullable = false, updatable = false, name = "user_id")
     private Long userId;
 
     @Column(unique = true, nullable = false, updatable = false, name = "user_uuid")
-    private String userUuid;
+    private UUID userUuid;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String username;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -63,17 +79,18 @@ public class User extends AuditEntity {
     @Column(nullable = false, name = "is_account_non_expired")
     private boolean isAccountNonExpired;
 
+    @ColumnDefault("0")
+    @Column(nullable = false, name = "security_version")
+    private long securityVersion;
+
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL)
-    private Profile profile;
-
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "role_fk", nullable = false)
     private Role role;
 
     public User(String username, String email, String password, String firstname, String lastname, Role role) {
-        this.userUuid = UUID.randomUUID().toString();
+        this.userUuid = UuidV7.generate();
         this.username = username;
         this.email = email;
         this.password = password;
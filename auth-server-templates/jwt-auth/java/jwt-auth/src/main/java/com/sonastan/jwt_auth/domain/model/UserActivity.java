@@ -0,0 +1,41 @@
+package com.sonastan.jwt_auth.domain.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.hibernate.annotations.DynamicUpdate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The login tracking columns of the users table. They are mapped here instead
+ * of in {@link User}, so saving a user never writes back a stale login count,
+ * and updating them never writes the other columns of the user. Rows are only
+ * ever updated through this entity, never inserted or deleted.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@DynamicUpdate
+@Table(name = "users")
+public class UserActivity {
+
+    @Id
+    @Column(nullable = false, insertable = false, updatable = false, name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, insertable = false, updatable = false, name = "user_uuid")
+    private UUID userUuid;
+
+    @Column(name = "last_login_at")
+    private Instant lastLoginAt;
+
+    @Column(nullable = false, name = "login_count")
+    private long loginCount;
+
+}
@@ -0,0 +1,39 @@
+package com.sonastan.jwt_auth.domain.model;
+
+import java.util.UUID;
+
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+
+/**
+ * Read-only projection of a {@link User} with the name of its role, holding
+ * exactly what authentication and the user endpoints need. Loading it does
+ * not create a managed entity and does not fetch the profile.
+ */
+public interface UserDetailsView {
+
+    Long getUserId();
+
+    UUID getUserUuid();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getPassword();
+
+    String getFirstname();
+
+    String getLastname();
+
+    boolean isEnabled();
+
+    boolean isCredentialsNonExpired();
+
+    boolean isAccountNonLocked();
+
+    boolean isAccountNonExpired();
+
+    long getSecurityVersion();
+
+    UserRole getRolename();
+}
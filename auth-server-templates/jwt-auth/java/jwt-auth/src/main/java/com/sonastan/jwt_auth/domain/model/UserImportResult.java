@@ -0,0 +1,5 @@
+package com.sonastan.jwt_auth.domain.model;
+
+public record UserImportResult(long imported, long rejected) {
+
+}
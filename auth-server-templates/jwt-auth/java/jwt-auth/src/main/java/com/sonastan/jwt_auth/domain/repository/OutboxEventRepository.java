@@ -0,0 +1,44 @@
+package com.sonastan.jwt_auth.domain.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.sonastan.jwt_auth.domain.model.OutboxEvent;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // a lock timeout of -2 is SKIP LOCKED, so instances dispatching at the same time take different events
+    String SKIP_LOCKED = "-2";
+
+    /**
+     * Locks the events with the lowest ids that were not given up on. Ids are
+     * allocated in pooled-lo blocks per instance, so this is only roughly the
+     * order the events were written in. Events locked by another dispatcher
+     * are skipped instead of waited for.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = SKIP_LOCKED))
+    @Query("select e from OutboxEvent e where e.attempts < :maxAttempts order by e.outboxEventId")
+    List<OutboxEvent> findBatchForDispatch(@Param("maxAttempts") int maxAttempts, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = SKIP_LOCKED))
+    @Query("select e from OutboxEvent e where e.outboxEventId = :outboxEventId")
+    Optional<OutboxEvent> findForDispatchById(@Param("outboxEventId") Long outboxEventId);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1 where e.outboxEventId = :outboxEventId")
+    int incrementAttempts(@Param("outboxEventId") Long outboxEventId);
+
+}
@@ -0,0 +1,31 @@
+package com.sonastan.jwt_auth.domain.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.sonastan.jwt_auth.domain.model.RevokedToken;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    boolean existsByJti(String jti);
+
+    /**
+     * Keyset page of tokens revoked after the given position, ordered by
+     * revocation time and id so rows with equal timestamps are not skipped.
+     */
+    @Query("""
+            select t from RevokedToken t
+            where t.revokedAt > :revokedAt or (t.revokedAt = :revokedAt and t.revokedTokenId > :revokedTokenId)
+            order by t.revokedAt, t.revokedTokenId
+            """)
+    List<RevokedToken> findRevokedAfter(@Param("revokedAt") Instant revokedAt,
+            @Param("revokedTokenId") long revokedTokenId, Limit limit);
+
+    List<RevokedToken> findTop1000ByExpiresAtBeforeOrderByExpiresAtAsc(Instant expiresAt);
+
+}
@@ -0,0 +1,30 @@
+package com.sonastan.jwt_auth.domain.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.sonastan.jwt_auth.domain.model.SecurityVersionChange;
+
+public interface SecurityVersionChangeRepository extends JpaRepository<SecurityVersionChange, Long> {
+
+    /**
+     * Keyset page of changes after the given position, ordered by change time
+     * and id so rows with equal timestamps are not skipped.
+     */
+    @Query("""
+            select c from SecurityVersionChange c
+            where c.changedAt > :changedAt
+                or (c.changedAt = :changedAt and c.securityVersionChangeId > :securityVersionChangeId)
+            order by c.changedAt, c.securityVersionChangeId
+            """)
+    List<SecurityVersionChange> findChangedAfter(@Param("changedAt") Instant changedAt,
+            @Param("securityVersionChangeId") long securityVersionChangeId, Limit limit);
+
+    List<SecurityVersionChange> findTop1000ByChangedAtBeforeOrderByChangedAtAsc(Instant changedAt);
+
+}
@@ -0,0 +1,30 @@
+package com.sonastan.jwt_auth.domain.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.sonastan.jwt_auth.domain.model.UserActivity;
+
+import jakarta.persistence.LockModeType;
+
+public interface UserActivityRepository extends JpaRepository<UserActivity, Long> {
+
+    Optional<UserActivity> findByUserUuid(UUID userUuid);
+
+    /**
+     * Locks the rows in the order of their ids, so instances flushing
+     * overlapping users at the same time wait for each other instead of
+     * deadlocking, and no increment of the login count is lost.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from UserActivity a where a.userUuid in :userUuids order by a.userId")
+    List<UserActivity> findAllForUpdate(@Param("userUuids") Collection<UUID> userUuids);
+
+}
@@ -1,20 +1,86 @@
 package com.sonastan.jwt_auth.domain.repository;
 
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.sonastan.jwt_auth.domain.model.Role;
 import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.model.UserDetailsView;
+
+import jakarta.persistence.QueryHint;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    String SELECT_USER_DETAILS_VIEW = "select u.userId as userId, u.userUuid as userUuid, u.username as username, "
+            + "u.email as email, u.password as password, u.firstname as firstname, u.lastname as lastname, "
+            + "u.isEnabled as enabled, u.isCredentialsNonExpired as credentialsNonExpired, "
+            + "u.isAccountNonLocked as accountNonLocked, u.isAccountNonExpired as accountNonExpired, "
+            + "u.securityVersion as securityVersion, r.rolename as rolename from User u join u.role r ";
+
+    @EntityGraph(User.WITH_ROLE)
     Optional<User> findByUsername(String username);
 
-    Optional<User> findByUserUuid(String userUuid);
+    @EntityGraph(User.WITH_ROLE)
+    Optional<User> findByUserUuid(UUID userUuid);
+
+    /**
+     * Read-only, so the lookup is served by a read replica when replicas are
+     * configured and no write transaction is active.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_USER_DETAILS_VIEW + "where u.username = :username")
+    Optional<UserDetailsView> findDetailsByUsername(@Param("username") String username);
 
+    @Transactional(readOnly = true)
+    @Query(SELECT_USER_DETAILS_VIEW + "where u.userUuid = :userUuid")
+    Optional<UserDetailsView> findDetailsByUserUuid(@Param("userUuid") UUID userUuid);
+
+    @Transactional(readOnly = true)
     boolean existsByUsername(String username);
 
+    @Transactional(readOnly = true)
     boolean existsByEmail(String email);
 
-    int deleteByUserUuid(String userUuid);
+    /**
+     * Deletes with a single statement, the profile is removed by the database
+     * through its on delete cascade foreign key.
+     */
+    @Modifying
+    @Query("delete from User u where u.userUuid = :userUuid")
+    int deleteByUserUuid(@Param("userUuid") UUID userUuid);
+
+    /**
+     * Reads all users through a forward-only cursor, fetching the rows in
+     * batches instead of loading the table. The role is fetched in the same
+     * query. Must be consumed and closed within a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u from User u join fetch u.role")
+    Stream<User> streamAll();
+
+    @Query("select u.securityVersion from User u where u.userUuid = :userUuid")
+    Optional<Long> findSecurityVersionByUserUuid(@Param("userUuid") UUID userUuid);
+
+    @Modifying
+    @Query("update User u set u.securityVersion = u.securityVersion + 1 where u.userUuid = :userUuid")
+    int incrementSecurityVersion(@Param("userUuid") UUID userUuid);
+
+    @Modifying
+    @Query("update User u set u.role = :role where u.userUuid = :userUuid")
+    int updateRole(@Param("userUuid") UUID userUuid, @Param("role") Role role);
+
+    @Modifying
+    @Query("update User u set u.password = :newPassword where u.userUuid = :userUuid and u.password = :oldPassword")
+    int updatePassword(@Param("userUuid") UUID userUuid, @Param("oldPassword") String oldPassword,
+            @Param("newPassword") String newPassword);
 }
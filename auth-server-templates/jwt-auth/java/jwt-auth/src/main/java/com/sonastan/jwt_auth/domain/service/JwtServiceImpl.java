@@ -1,7 +1,8 @@
 package com.sonastan.jwt_auth.domain.service;
 
 import java.time.Instant;
-import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,8 +15,14 @@ import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Service;
 
 import com.sonastan.jwt_auth.application.service.JwtService;
+import com.sonastan.jwt_auth.application.service.SecurityVersionService;
+import com.sonastan.jwt_auth.application.service.TokenRevocationService;
 import com.sonastan.jwt_auth.application.service.UserService;
 import com.sonastan.jwt_auth.infrastructure.constants.JwtType;
+import com.sonastan.jwt_auth.infrastructure.constants.RefreshMode;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtRefreshProperties;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtSubjects;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtTypeAuthenticationConverter;
 import com.sonastan.jwt_auth.infrastructure.security.user.UserDetailsImpl;
 
 import lombok.RequiredArgsConstructor;
@@ -32,12 +39,22 @@ public class JwtServiceImpl implements JwtService {
 
     private final UserService userService;
 
+    private final SecurityVersionService securityVersionService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final JwtRefreshProperties refreshProperties;
+
     @Override
     public Jwt validateToken(String token, JwtType type) {
-        Jwt jwt = jwtDecoder.decode(token);
+        return validateToken(jwtDecoder.decode(token), type);
+    }
+
+    @Override
+    public Jwt validateToken(Jwt jwt, JwtType type) {
         String userUuid = jwt.getSubject();
         log.info("Validating token for user: {}", userUuid);
-        if (!jwt.getClaimAsString("type").equals(type.name().toLowerCase())) {
+        if (!JwtTypeAuthenticationConverter.hasType(jwt, type)) {
             log.warn("Invalid token type for user: {}. Expected: {}, Found: {}", userUuid, type,
                     jwt.getClaimAsString("type"));
             throw new JwtException("Invalid token type");
@@ -49,19 +66,38 @@ public class JwtServiceImpl implements JwtService {
     @Override
     public Jwt generateRefreshToken(UserDetails userDetails) {
         String sub = userDetails.getUsername();
+        long securityVersion = 0;
         if (userDetails instanceof UserDetailsImpl) {
-            sub = ((UserDetailsImpl) userDetails).getUserUuid();
+            sub = ((UserDetailsImpl) userDetails).getUserUuid().toString();
+            securityVersion = ((UserDetailsImpl) userDetails).getSecurityVersion();
         }
+        return generateRefreshToken(sub, scope(userDetails), securityVersion);
+    }
+
+    @Override
+    public Jwt rotateRefreshToken(Jwt jwt) {
+        String userUuid = jwt.getSubject();
+        log.info("Rotating refresh token for user: {}", userUuid);
+        tokenRevocationService.revoke(jwt);
+        Long securityVersion = securityVersion(jwt);
+        return generateRefreshToken(userUuid, jwt.getClaimAsStringList("scope"),
+                securityVersion != null ? securityVersion : 0);
+    }
+
+    private Jwt generateRefreshToken(String sub, List<String> scope, long securityVersion) {
         log.info("Generating refresh token for user: {}", sub);
 
         Instant now = Instant.now();
-        Instant expiresAt = now.plusSeconds(3600);
+        Instant expiresAt = now.plus(refreshProperties.tokenTtl());
         JwtClaimsSet jwtClaimsSet = JwtClaimsSet.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(sub)
                 .issuedAt(now)
                 .expiresAt(expiresAt)
                 .notBefore(now)
                 .issuer("http://localhost:8080")
+                .claim("scope", scope)
+                .claim("ver", securityVersion)
                 .claim("type", JwtType.REFRESH.name().toLowerCase())
                 .build();
 
@@ -73,11 +109,13 @@ public class JwtServiceImpl implements JwtService {
     @Override
     public Jwt generateAccessToken(UserDetails userDetails) {
         String sub = userDetails.getUsername();
-        Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
-
         if (userDetails instanceof UserDetailsImpl) {
-            sub = ((UserDetailsImpl) userDetails).getUserUuid();
+            sub = ((UserDetailsImpl) userDetails).getUserUuid().toString();
         }
+        return generateAccessToken(sub, scope(userDetails));
+    }
+
+    private Jwt generateAccessToken(String sub, List<String> scope) {
         log.info("Generating access token for user: {}", sub);
 
         Instant now = Instant.now();
@@ -88,7 +126,7 @@ public class JwtServiceImpl implements JwtService {
                 .expiresAt(expiresAt)
                 .notBefore(now)
                 .issuer("http://localhost:8080")
-                .claim("scope", authorities.stream().map(GrantedAuthority::getAuthority).toList())
+                .claim("scope", scope)
                 .claim("type", JwtType.ACCESS.name().toLowerCase())
                 .build();
 
@@ -99,12 +137,46 @@ public class JwtServiceImpl implements JwtService {
 
     @Override
     public Jwt refreshAccessToken(Jwt jwt) {
-        String userUuid = jwt.getSubject();
+        UUID userUuid = JwtSubjects.userUuid(jwt);
         log.info("Refreshing access token for user: {}", userUuid);
+        // a local filter probe, the database is only read on a possible hit
+        if (tokenRevocationService.isRevoked(jwt)) {
+            log.warn("Revoked refresh token {} was used again for user: {}", jwt.getId(), userUuid);
+            throw new JwtException("Refresh token has already been used");
+        }
+        Long securityVersion = securityVersion(jwt);
+        // the version store also knows changes made on other instances, which a cached user may predate
+        if (securityVersion != null && !securityVersionService.isCurrent(userUuid, securityVersion)) {
+            log.warn("Outdated refresh token for user: {}. Token version: {}", userUuid, securityVersion);
+            throw new JwtException("Refresh token has been revoked");
+        }
+        List<String> scope = jwt.getClaimAsStringList("scope");
+
+        if (refreshProperties.mode() == RefreshMode.CLAIMS && securityVersion != null && scope != null) {
+            Jwt newJwt = generateAccessToken(jwt.getSubject(), scope);
+            log.info("Access token refreshed from refresh token claims for user: {}", userUuid);
+            return newJwt;
+        }
+
         UserDetails user = userService.loadUserByUuid(userUuid);
+        if (securityVersion != null && user instanceof UserDetailsImpl
+                && ((UserDetailsImpl) user).getSecurityVersion() != securityVersion) {
+            log.warn("Outdated refresh token for user: {}. Token version: {}, current version: {}", userUuid,
+                    securityVersion, ((UserDetailsImpl) user).getSecurityVersion());
+            throw new JwtException("Refresh token has been revoked");
+        }
         Jwt newJwt = generateAccessToken(user);
         log.info("Access token refreshed for user: {}", userUuid);
         return newJwt;
     }
 
+    private static List<String> scope(UserDetails userDetails) {
+        return userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    private static Long securityVersion(Jwt jwt) {
+        Object ver = jwt.getClaim("ver");
+        return ver instanceof Number ? ((Number) ver).longValue() : null;
+    }
+
 }
@@ -0,0 +1,161 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.sonastan.jwt_auth.application.event.OutboxEventSubscriber;
+import com.sonastan.jwt_auth.application.service.OutboxDispatcher;
+import com.sonastan.jwt_auth.domain.model.OutboxEvent;
+import com.sonastan.jwt_auth.domain.repository.OutboxEventRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.OutboxEventType;
+import com.sonastan.jwt_auth.infrastructure.persistence.OutboxProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the outbox in batches in id order, which is not strictly the order
+ * the events were written in, so subscribers must not rely on it. A batch is
+ * locked, delivered to the subscribers of each event and deleted in one
+ * transaction, so its events are delivered again if any of that fails. Rows
+ * locked by another instance are skipped, so several instances can dispatch
+ * at the same time without delivering an event twice in parallel.
+ * <p>
+ * When a batch fails, its events are delivered again one transaction each, so
+ * a single failing event does not hold up the others. A failing event is
+ * retried on the next runs until it failed max-attempts times; then it stays
+ * in the table, is no longer dispatched and keeps the backlog above zero.
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxDispatcherImpl implements OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final TransactionOperations transactionOperations;
+
+    private final Map<OutboxEventType, List<OutboxEventSubscriber>> subscribers = new EnumMap<>(OutboxEventType.class);
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    private final Counter dispatched;
+
+    private final Counter failed;
+
+    public OutboxDispatcherImpl(OutboxEventRepository outboxEventRepository,
+            TransactionOperations transactionOperations, List<OutboxEventSubscriber> subscribers,
+            OutboxProperties properties, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionOperations = transactionOperations;
+        for (OutboxEventSubscriber subscriber : subscribers) {
+            this.subscribers.computeIfAbsent(subscriber.eventType(), type -> new ArrayList<>()).add(subscriber);
+        }
+        this.batchSize = properties.batchSize();
+        this.maxAttempts = properties.maxAttempts();
+        this.dispatched = Counter.builder("outbox.dispatched")
+                .description("Outbox events delivered to their subscribers")
+                .register(meterRegistry);
+        this.failed = Counter.builder("outbox.failed")
+                .description("Failed deliveries of outbox events")
+                .register(meterRegistry);
+        Gauge.builder("outbox.backlog", backlog, AtomicLong::get)
+                .description("Outbox events not yet delivered, including those given up on")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval:1s}")
+    public void scheduledDispatch() {
+        int delivered = dispatch();
+        if (delivered > 0) {
+            log.debug("Dispatched {} outbox events", delivered);
+        }
+    }
+
+    @Override
+    public int dispatch() {
+        int delivered = 0;
+        List<OutboxEvent> batch = new ArrayList<>();
+        boolean full;
+        do {
+            batch.clear();
+            try {
+                delivered += dispatchBatch(batch);
+                full = batch.size() == batchSize;
+            } catch (RuntimeException e) {
+                log.warn("Dispatching a batch of {} outbox events failed, retrying them one by one", batch.size(), e);
+                delivered += dispatchOneByOne(batch);
+                // events that failed again wait for the next run instead of using up their attempts in this one
+                full = false;
+            }
+        } while (full);
+        backlog.set(outboxEventRepository.count());
+        return delivered;
+    }
+
+    // collects the events taken into batch, so they can be retried after a rollback
+    private int dispatchBatch(List<OutboxEvent> batch) {
+        return transactionOperations.execute(status -> {
+            batch.addAll(outboxEventRepository.findBatchForDispatch(maxAttempts, Limit.of(batchSize)));
+            batch.forEach(this::deliver);
+            outboxEventRepository.deleteAllInBatch(batch);
+            dispatched.increment(batch.size());
+            return batch.size();
+        });
+    }
+
+    private int dispatchOneByOne(List<OutboxEvent> batch) {
+        int delivered = 0;
+        for (OutboxEvent event : batch) {
+            Long outboxEventId = event.getOutboxEventId();
+            try {
+                boolean done = transactionOperations.execute(status -> outboxEventRepository
+                        .findForDispatchById(outboxEventId)
+                        .map(lockedEvent -> {
+                            deliver(lockedEvent);
+                            outboxEventRepository.delete(lockedEvent);
+                            return true;
+                        })
+                        .orElse(false));
+                if (done) {
+                    dispatched.increment();
+                    delivered++;
+                }
+            } catch (RuntimeException e) {
+                failed.increment();
+                transactionOperations.executeWithoutResult(
+                        status -> outboxEventRepository.incrementAttempts(outboxEventId));
+                int attempts = event.getAttempts() + 1;
+                if (attempts >= maxAttempts) {
+                    log.error("Giving up on outbox event {} of type {} for {} after {} attempts", outboxEventId,
+                            event.getEventType(), event.getAggregateUuid(), attempts, e);
+                } else {
+                    log.warn("Delivering outbox event {} failed in attempt {}", outboxEventId, attempts, e);
+                }
+            }
+        }
+        return delivered;
+    }
+
+    private void deliver(OutboxEvent event) {
+        for (OutboxEventSubscriber subscriber : subscribers.getOrDefault(event.getEventType(), List.of())) {
+            subscriber.handle(event);
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.sonastan.jwt_auth.application.service.RoleService;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Roles are read from an immutable in-memory table that is replaced as a
+ * whole whenever a role is saved or deleted (see {@code RoleEntityListener}),
+ * so registrations never query the roles table. The returned roles are
+ * detached and must not be modified.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoleServiceImpl implements RoleService {
+
+    private final RoleRepository roleRepository;
+
+    private volatile Map<UserRole, Role> roles = Map.of();
+
+    @Override
+    public Optional<Role> findByRolename(UserRole rolename) {
+        return Optional.ofNullable(roles.get(rolename));
+    }
+
+    @Override
+    public void reload() {
+        roles = roleRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getRolename, Function.identity(),
+                        (first, second) -> first.getRoleId() < second.getRoleId() ? first : second));
+        log.info("Loaded roles: {}", roles.keySet());
+    }
+
+}
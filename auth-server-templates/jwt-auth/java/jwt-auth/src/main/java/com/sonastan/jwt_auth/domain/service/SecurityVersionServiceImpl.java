@@ -0,0 +1,140 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sonastan.jwt_auth.application.service.SecurityVersionService;
+import com.sonastan.jwt_auth.domain.model.SecurityVersionChange;
+import com.sonastan.jwt_auth.domain.repository.SecurityVersionChangeRepository;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+import com.sonastan.jwt_auth.infrastructure.exception.NotFoundException;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtRefreshProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Only remembers users whose security version changed. An entry is needed no
+ * longer than a refresh token lives, because every token issued before the
+ * change has expired by then.
+ * <p>
+ * Changes are logged to the security_version_changes table in the transaction
+ * that makes them, and every instance syncs the log into its store. Like the
+ * revoked tokens, the log is read by time with an overlap window, because
+ * pooled-lo ids are not ordered across instances or by commit. Re-read rows
+ * are harmless, the store keeps the highest version per user.
+ */
+@Service
+@Slf4j
+public class SecurityVersionServiceImpl implements SecurityVersionService {
+
+    private static final long REVOKED = Long.MAX_VALUE;
+
+    private static final int SYNC_BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+
+    private final SecurityVersionChangeRepository securityVersionChangeRepository;
+
+    private final Duration tokenTtl;
+
+    private final Duration syncOverlap;
+
+    private final Cache<UUID, Long> changedVersions;
+
+    private volatile Instant syncedUntil;
+
+    public SecurityVersionServiceImpl(UserRepository userRepository,
+            SecurityVersionChangeRepository securityVersionChangeRepository, JwtRefreshProperties refreshProperties) {
+        this.userRepository = userRepository;
+        this.securityVersionChangeRepository = securityVersionChangeRepository;
+        this.tokenTtl = refreshProperties.tokenTtl();
+        this.syncOverlap = refreshProperties.versionSyncOverlap();
+        this.changedVersions = Caffeine.newBuilder()
+                .expireAfterWrite(refreshProperties.tokenTtl())
+                .build();
+    }
+
+    /**
+     * Adds versions changed by other instances to the store. The first run
+     * loads every change a live refresh token can predate.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.refresh.version-sync-interval:5s}", initialDelayString = "${jwt.refresh.version-sync-interval:5s}")
+    public synchronized void syncChangedVersions() {
+        Instant changedAt = syncedUntil != null ? syncedUntil.minus(syncOverlap) : Instant.now().minus(tokenTtl);
+        long changeId = 0;
+        List<SecurityVersionChange> changes;
+        do {
+            changes = securityVersionChangeRepository.findChangedAfter(changedAt, changeId,
+                    Limit.of(SYNC_BATCH_SIZE));
+            for (SecurityVersionChange change : changes) {
+                changedVersions.asMap().merge(change.getUserUuid(), change.getSecurityVersion(), Math::max);
+                changedAt = change.getChangedAt();
+                changeId = change.getSecurityVersionChangeId();
+            }
+        } while (changes.size() == SYNC_BATCH_SIZE);
+        if (syncedUntil == null || changedAt.isAfter(syncedUntil)) {
+            syncedUntil = changedAt;
+        }
+    }
+
+    /**
+     * Deletes one batch of changes older than a refresh token lives per run.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh.version-purge-interval:1m}")
+    public void purgeExpiredChanges() {
+        List<SecurityVersionChange> expiredChanges = securityVersionChangeRepository
+                .findTop1000ByChangedAtBeforeOrderByChangedAtAsc(Instant.now().minus(tokenTtl));
+        if (!expiredChanges.isEmpty()) {
+            securityVersionChangeRepository.deleteAllInBatch(expiredChanges);
+        }
+        log.debug("Purged {} expired security version changes", expiredChanges.size());
+    }
+
+    @Override
+    public boolean isCurrent(UUID userUuid, long securityVersion) {
+        Long changedVersion = changedVersions.getIfPresent(userUuid);
+        return changedVersion == null || changedVersion <= securityVersion;
+    }
+
+    /**
+     * Increases users.security_version, so refresh tokens issued before are no
+     * longer accepted. Runs in the transaction of the change that requires it.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long increment(UUID userUuid) {
+        userRepository.incrementSecurityVersion(userUuid);
+        long securityVersion = userRepository.findSecurityVersionByUserUuid(userUuid)
+                .orElseThrow(() -> new NotFoundException("User not found with UUID: " + userUuid));
+        log.info("Security version of user {} increased to {}", userUuid, securityVersion);
+        record(userUuid, securityVersion);
+        return securityVersion;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revoke(UUID userUuid) {
+        log.info("Revoking refresh tokens for user: {}", userUuid);
+        record(userUuid, REVOKED);
+    }
+
+    // applied locally at once, if the transaction rolls back the user is only looked up in the database
+    private void record(UUID userUuid, long securityVersion) {
+        securityVersionChangeRepository.save(new SecurityVersionChange(userUuid, securityVersion));
+        changedVersions.asMap().merge(userUuid, securityVersion, Math::max);
+    }
+
+}
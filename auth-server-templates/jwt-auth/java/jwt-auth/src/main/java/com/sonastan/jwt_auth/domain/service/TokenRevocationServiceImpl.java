@@ -0,0 +1,136 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Service;
+
+import com.sonastan.jwt_auth.application.service.TokenRevocationService;
+import com.sonastan.jwt_auth.domain.model.RevokedToken;
+import com.sonastan.jwt_auth.domain.repository.RevokedTokenRepository;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtRevocationProperties;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.TimeBucketedBloomFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Revoked refresh tokens are stored in the database and mirrored into a
+ * {@link TimeBucketedBloomFilter}. Checking a token only queries the database
+ * when the filter reports a possible hit. Revoking is one synchronous insert:
+ * the unique jti column is what makes a token usable (i.e. rotatable) only
+ * once across instances, so it cannot be written behind.
+ */
+@Service
+@Slf4j
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final TimeBucketedBloomFilter filter;
+
+    private static final int SYNC_BATCH_SIZE = 1000;
+
+    private final Duration syncOverlap;
+
+    // jti -> revoked_at of the tokens in the overlap window, which every sync reads again
+    private final Map<String, Instant> recentlySynced = new ConcurrentHashMap<>();
+
+    private volatile Instant syncedUntil = Instant.EPOCH;
+
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository,
+            JwtRevocationProperties revocationProperties) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.syncOverlap = revocationProperties.syncOverlap();
+        this.filter = new TimeBucketedBloomFilter(revocationProperties.bucketWidth(),
+                revocationProperties.expectedInsertionsPerBucket(), revocationProperties.falsePositiveProbability());
+    }
+
+    @Override
+    public boolean isRevoked(Jwt jwt) {
+        String jti = jwt.getId();
+        if (jti == null) {
+            return false;
+        }
+        return filter.mightContain(jti) && revokedTokenRepository.existsByJti(jti);
+    }
+
+    @Override
+    public void revoke(Jwt jwt) {
+        String jti = jwt.getId();
+        if (jti == null) {
+            log.warn("Refresh token without jti for user: {}", jwt.getSubject());
+            throw new JwtException("Refresh token cannot be revoked");
+        }
+        RevokedToken revokedToken;
+        try {
+            revokedToken = revokedTokenRepository
+                    .saveAndFlush(new RevokedToken(jti, jwt.getSubject(), jwt.getExpiresAt()));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Revoked refresh token {} was used again for user: {}", jti, jwt.getSubject());
+            throw new JwtException("Refresh token has already been used");
+        }
+        filter.put(jti, jwt.getExpiresAt());
+        recentlySynced.put(jti, revokedToken.getRevokedAt());
+        log.info("Refresh token {} revoked for user: {}", jti, jwt.getSubject());
+    }
+
+    /**
+     * Adds tokens revoked by other instances to the filter. Runs at startup to
+     * load all tokens that are still revoked. Rows are read by revoked_at
+     * rather than by id, since ids come from per-instance pooled-lo blocks and
+     * rows commit out of order. A row can commit after one with a later
+     * revoked_at, so every run starts sync-overlap before the newest row seen
+     * and skips the jtis it already added.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:5s}", initialDelayString = "${jwt.revocation.sync-interval:5s}")
+    public synchronized void syncRevokedTokens() {
+        Instant now = Instant.now();
+        Instant revokedAt = syncedUntil.minus(syncOverlap);
+        long revokedTokenId = 0;
+        List<RevokedToken> revokedTokens;
+        do {
+            revokedTokens = revokedTokenRepository.findRevokedAfter(revokedAt, revokedTokenId,
+                    Limit.of(SYNC_BATCH_SIZE));
+            for (RevokedToken revokedToken : revokedTokens) {
+                if (revokedToken.getExpiresAt().isAfter(now)
+                        && recentlySynced.putIfAbsent(revokedToken.getJti(), revokedToken.getRevokedAt()) == null) {
+                    filter.put(revokedToken.getJti(), revokedToken.getExpiresAt());
+                }
+                revokedAt = revokedToken.getRevokedAt();
+                revokedTokenId = revokedToken.getRevokedTokenId();
+            }
+        } while (revokedTokens.size() == SYNC_BATCH_SIZE);
+        if (revokedAt.isAfter(syncedUntil)) {
+            syncedUntil = revokedAt;
+        }
+        Instant windowStart = syncedUntil.minus(syncOverlap);
+        recentlySynced.values().removeIf(syncedAt -> syncedAt.isBefore(windowStart));
+    }
+
+    /**
+     * Drops expired filter buckets and deletes one batch of expired rows per
+     * run, so the purge never holds long locks.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:1m}")
+    public void purgeExpiredTokens() {
+        Instant now = Instant.now();
+        int expiredBuckets = filter.expire(now);
+        List<RevokedToken> expiredTokens = revokedTokenRepository.findTop1000ByExpiresAtBeforeOrderByExpiresAtAsc(now);
+        if (!expiredTokens.isEmpty()) {
+            revokedTokenRepository.deleteAllInBatch(expiredTokens);
+        }
+        log.debug("Purged {} expired revoked tokens and {} filter buckets", expiredTokens.size(), expiredBuckets);
+    }
+
+}
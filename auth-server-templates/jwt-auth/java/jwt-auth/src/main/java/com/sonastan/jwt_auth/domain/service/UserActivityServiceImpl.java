@@ -0,0 +1,176 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.sonastan.jwt_auth.application.service.UserActivityService;
+import com.sonastan.jwt_auth.domain.model.UserActivity;
+import com.sonastan.jwt_auth.domain.repository.UserActivityRepository;
+import com.sonastan.jwt_auth.infrastructure.persistence.UserActivityProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logins are collected in memory and written behind, instead of one update per
+ * login. Repeated logins of a user are merged into one pending entry, so a
+ * flush updates every user once however often it logged in meanwhile. A flush
+ * runs every flush-interval, and as soon as flush-size users are pending.
+ * <p>
+ * The users of a flush are locked and updated in transactions of flush-size
+ * users, and Hibernate sends their updates in JDBC batches. A failed
+ * transaction puts its logins back for the next flush. The pending logins are
+ * flushed on shutdown; logins recorded by an instance that crashes are lost,
+ * which is acceptable for statistics.
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(UserActivityProperties.class)
+public class UserActivityServiceImpl implements UserActivityService {
+
+    private final UserActivityRepository userActivityRepository;
+
+    private final TransactionOperations transactionOperations;
+
+    private final TaskScheduler taskScheduler;
+
+    private final int flushSize;
+
+    private final Map<UUID, PendingLogins> pendingLogins = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    // one flush at a time, so the shutdown flush waits for a running one
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Timer flushLag;
+
+    public UserActivityServiceImpl(UserActivityRepository userActivityRepository,
+            TransactionOperations transactionOperations, TaskScheduler taskScheduler,
+            UserActivityProperties properties, MeterRegistry meterRegistry) {
+        this.userActivityRepository = userActivityRepository;
+        this.transactionOperations = transactionOperations;
+        this.taskScheduler = taskScheduler;
+        this.flushSize = properties.flushSize();
+        this.flushLag = Timer.builder("user.activity.flush.lag")
+                .description("Time the oldest login of a flushed batch waited to be written")
+                .register(meterRegistry);
+        Gauge.builder("user.activity.pending", pendingLogins, Map::size)
+                .description("Users with logins not yet written")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recordLogin(UUID userUuid) {
+        pendingLogins.merge(userUuid, new PendingLogins(1, Instant.now(), System.nanoTime()), PendingLogins::merge);
+        if (pendingLogins.size() >= flushSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                taskScheduler.schedule(this::flush, Instant.now());
+            } catch (TaskRejectedException e) {
+                // the scheduler is shut down, the shutdown flush writes the logins
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user-activity.flush-interval:5s}")
+    public void scheduledFlush() {
+        int updated = flush();
+        if (updated > 0) {
+            log.debug("Wrote the logins of {} users", updated);
+        }
+    }
+
+    @Override
+    public int flush() {
+        flushScheduled.set(false);
+        flushLock.lock();
+        try {
+            int updated = 0;
+            Map<UUID, PendingLogins> batch = new HashMap<>();
+            for (UUID userUuid : pendingLogins.keySet()) {
+                PendingLogins logins = pendingLogins.remove(userUuid);
+                if (logins != null) {
+                    batch.put(userUuid, logins);
+                }
+                if (batch.size() == flushSize) {
+                    updated += write(batch);
+                    batch = new HashMap<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                updated += write(batch);
+            }
+            return updated;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int updated = flush();
+        if (pendingLogins.isEmpty()) {
+            log.info("Wrote the logins of {} users on shutdown", updated);
+        } else {
+            log.error("The logins of {} users could not be written on shutdown", pendingLogins.size());
+        }
+    }
+
+    private int write(Map<UUID, PendingLogins> batch) {
+        try {
+            // the updates are sent when the transaction commits
+            List<UserActivity> activities = transactionOperations.execute(status -> {
+                List<UserActivity> lockedActivities = userActivityRepository.findAllForUpdate(batch.keySet());
+                for (UserActivity activity : lockedActivities) {
+                    batch.get(activity.getUserUuid()).applyTo(activity);
+                }
+                return lockedActivities;
+            });
+            long now = System.nanoTime();
+            long oldest = batch.values().stream().mapToLong(PendingLogins::firstRecordedNanos).min().orElse(now);
+            flushLag.record(now - oldest, TimeUnit.NANOSECONDS);
+            // users deleted meanwhile are not found, their logins are dropped
+            return activities.size();
+        } catch (RuntimeException e) {
+            log.warn("Writing the logins of {} users failed, retrying with the next flush", batch.size(), e);
+            batch.forEach((userUuid, logins) -> pendingLogins.merge(userUuid, logins, PendingLogins::merge));
+            return 0;
+        }
+    }
+
+    private record PendingLogins(long logins, Instant lastLoginAt, long firstRecordedNanos) {
+
+        private PendingLogins merge(PendingLogins other) {
+            return new PendingLogins(logins + other.logins,
+                    lastLoginAt.isAfter(other.lastLoginAt) ? lastLoginAt : other.lastLoginAt,
+                    Math.min(firstRecordedNanos, other.firstRecordedNanos));
+        }
+
+        // the last login of another instance may be newer than the ones recorded here
+        private void applyTo(UserActivity activity) {
+            activity.setLoginCount(activity.getLoginCount() + logins);
+            if (activity.getLastLoginAt() == null || activity.getLastLoginAt().isBefore(lastLoginAt)) {
+                activity.setLastLoginAt(lastLoginAt);
+            }
+        }
+    }
+
+}
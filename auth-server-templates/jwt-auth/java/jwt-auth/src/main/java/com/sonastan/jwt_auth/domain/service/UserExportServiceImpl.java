@@ -0,0 +1,47 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sonastan.jwt_auth.application.service.UserExportService;
+import com.sonastan.jwt_auth.domain.model.MigratedUser;
+import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the users through a forward-only cursor and detaches every user once
+ * it was handed on, so the persistence context does not grow with the table.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class UserExportServiceImpl implements UserExportService {
+
+    private final UserRepository userRepository;
+
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(Consumer<MigratedUser> consumer) {
+        long exported = 0;
+        try (Stream<User> users = userRepository.streamAll()) {
+            for (User user : (Iterable<User>) users::iterator) {
+                consumer.accept(new MigratedUser(user.getUsername(), user.getEmail(), user.getPassword(),
+                        user.getFirstname(), user.getLastname(), user.getRole().getRolename(), user.getUserUuid()));
+                entityManager.detach(user);
+                exported++;
+            }
+        }
+        log.info("Exported {} users", exported);
+        return exported;
+    }
+
+}
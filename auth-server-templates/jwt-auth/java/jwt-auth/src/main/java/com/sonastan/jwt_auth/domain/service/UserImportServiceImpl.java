@@ -0,0 +1,129 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.sonastan.jwt_auth.application.service.RoleService;
+import com.sonastan.jwt_auth.application.service.UserImportService;
+import com.sonastan.jwt_auth.domain.model.MigratedUser;
+import com.sonastan.jwt_auth.domain.model.Profile;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.model.UserImportResult;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.infrastructure.exception.ServerException;
+import com.sonastan.jwt_auth.infrastructure.persistence.UserImportProperties;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Inserts users and their profiles in chunks, one transaction per chunk. The
+ * ids come from pooled sequences, so Hibernate sends the inserts of a chunk in
+ * JDBC batches. The persistence context is cleared after every chunk to keep
+ * the memory flat for millions of users.
+ * <p>
+ * A chunk that violates a constraint, e.g. with an existing username or uuid,
+ * is rolled back and inserted again one user at a time, so only the offending
+ * users are rejected. Users keep their role and uuid; without them they get
+ * {@link UserRole#ROLE_USER} and a new uuid.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+@EnableConfigurationProperties(UserImportProperties.class)
+public class UserImportServiceImpl implements UserImportService {
+
+    private final EntityManager entityManager;
+
+    private final RoleService roleService;
+
+    private final TransactionOperations transactionOperations;
+
+    private final UserImportProperties properties;
+
+    @Override
+    public UserImportResult importUsers(Stream<MigratedUser> users) {
+        Map<UserRole, Role> roles = new EnumMap<>(UserRole.class);
+        for (UserRole rolename : UserRole.values()) {
+            roleService.findByRolename(rolename).ifPresent(role -> roles.put(rolename, role));
+        }
+        if (!roles.containsKey(UserRole.ROLE_USER)) {
+            log.error("Role not found: {}", UserRole.ROLE_USER);
+            throw new ServerException("Role not found: " + UserRole.ROLE_USER);
+        }
+        long imported = 0;
+        long rejected = 0;
+        List<MigratedUser> chunk = new ArrayList<>(properties.chunkSize());
+        Iterator<MigratedUser> iterator = users.iterator();
+        while (iterator.hasNext()) {
+            MigratedUser user = iterator.next();
+            if (roles.containsKey(rolename(user))) {
+                chunk.add(user);
+            } else {
+                log.warn("Rejected imported user '{}': role not found: {}", user.username(), rolename(user));
+                rejected++;
+            }
+            if (!chunk.isEmpty() && (chunk.size() == properties.chunkSize() || !iterator.hasNext())) {
+                int inserted = insertChunk(chunk, roles);
+                imported += inserted;
+                rejected += chunk.size() - inserted;
+                chunk.clear();
+            }
+        }
+        log.info("Imported {} users, rejected {}", imported, rejected);
+        return new UserImportResult(imported, rejected);
+    }
+
+    private int insertChunk(List<MigratedUser> chunk, Map<UserRole, Role> roles) {
+        try {
+            transactionOperations.executeWithoutResult(status -> insert(chunk, roles));
+            return chunk.size();
+        } catch (PersistenceException | DataIntegrityViolationException e) {
+            log.debug("Chunk of {} users failed, inserting them one at a time", chunk.size(), e);
+        }
+        int inserted = 0;
+        for (MigratedUser user : chunk) {
+            try {
+                transactionOperations.executeWithoutResult(status -> insert(List.of(user), roles));
+                inserted++;
+            } catch (PersistenceException | DataIntegrityViolationException e) {
+                log.warn("Rejected imported user '{}': {}", user.username(), e.getMessage());
+            }
+        }
+        return inserted;
+    }
+
+    private void insert(List<MigratedUser> users, Map<UserRole, Role> roles) {
+        try {
+            for (MigratedUser migratedUser : users) {
+                User user = new User(migratedUser.username(), migratedUser.email(), migratedUser.password(),
+                        migratedUser.firstname(), migratedUser.lastname(), roles.get(rolename(migratedUser)));
+                if (migratedUser.userUuid() != null) {
+                    user.setUserUuid(migratedUser.userUuid());
+                }
+                entityManager.persist(user);
+                entityManager.persist(new Profile(user));
+            }
+            entityManager.flush();
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private static UserRole rolename(MigratedUser user) {
+        return user.role() != null ? user.role() : UserRole.ROLE_USER;
+    }
+
+}
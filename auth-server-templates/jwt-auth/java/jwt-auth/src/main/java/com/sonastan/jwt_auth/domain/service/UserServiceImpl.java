@@ -1,36 +1,64 @@
 package com.sonastan.jwt_auth.domain.service;
 
+import java.util.Locale;
+import java.util.UUID;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.password.CompromisedPasswordChecker;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sonastan.jwt_auth.application.service.RoleService;
+import com.sonastan.jwt_auth.application.service.SecurityVersionService;
 import com.sonastan.jwt_auth.application.service.UserService;
 import com.sonastan.jwt_auth.domain.event.user.UserCreatedEvent;
 import com.sonastan.jwt_auth.domain.model.Role;
 import com.sonastan.jwt_auth.domain.model.User;
-import com.sonastan.jwt_auth.domain.repository.RoleRepository;
 import com.sonastan.jwt_auth.domain.repository.UserRepository;
 import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
 import com.sonastan.jwt_auth.infrastructure.exception.IllegalModelArgumentException;
 import com.sonastan.jwt_auth.infrastructure.exception.NotFoundException;
 import com.sonastan.jwt_auth.infrastructure.exception.ServerException;
+import com.sonastan.jwt_auth.infrastructure.security.user.UserCacheProperties;
 import com.sonastan.jwt_auth.infrastructure.security.user.UserDetailsImpl;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Loaded users are cached by uuid, with a second cache from username to uuid.
+ * Both are bounded and expire after a short time. Changes made through this
+ * service evict the entry. A cached user whose security version is older than
+ * the one in the {@link SecurityVersionService} is loaded again, so a password
+ * or role change or a delete on another instance is seen once the version
+ * sync picked it up. Other changes made elsewhere are only seen after the
+ * entry expired.
+ * <p>
+ * Users are loaded in the read-only transactions of the repository, which are
+ * served by a read replica when replicas are configured. The write methods run
+ * in their own transactions on the primary.
+ */
 @Slf4j
-@RequiredArgsConstructor
 @Service
+@EnableConfigurationProperties(UserCacheProperties.class)
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
 
-    private final RoleRepository roleRepository;
+    private final RoleService roleService;
 
     private final PasswordEncoder passwordEncoder;
 
@@ -38,6 +66,48 @@ public class UserServiceImpl implements UserService {
 
     private final CompromisedPasswordChecker passwordChecker;
 
+    private final SecurityVersionService securityVersionService;
+
+    private final TransactionOperations transactionOperations;
+
+    private final Cache<UUID, UserDetails> usersByUuid;
+
+    private final Cache<String, UUID> userUuidsByUsername;
+
+    public UserServiceImpl(UserRepository userRepository, RoleService roleService, PasswordEncoder passwordEncoder,
+            ApplicationEventPublisher publisher, CompromisedPasswordChecker passwordChecker,
+            SecurityVersionService securityVersionService, TransactionOperations transactionOperations,
+            UserCacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.roleService = roleService;
+        this.passwordEncoder = passwordEncoder;
+        this.publisher = publisher;
+        this.passwordChecker = passwordChecker;
+        this.securityVersionService = securityVersionService;
+        this.transactionOperations = transactionOperations;
+        this.usersByUuid = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.maximumSize())
+                .expireAfterWrite(cacheProperties.expireAfterWrite())
+                .recordStats()
+                .build();
+        this.userUuidsByUsername = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.maximumSize())
+                .expireAfterWrite(cacheProperties.expireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByUuid, "users.by-uuid");
+        CaffeineCacheMetrics.monitor(meterRegistry, userUuidsByUsername, "users.by-username");
+    }
+
+    /**
+     * Inserts the user and, through the {@link UserCreatedEvent}, its outbox event
+     * in one transaction; the profile is created from the event by the
+     * {@link com.sonastan.jwt_auth.application.service.OutboxDispatcher}.
+     * Duplicate usernames and emails are detected by the unique constraints of
+     * the users table instead of queries before the insert, which also closes
+     * the race between checking and inserting. The password is checked and
+     * hashed before the transaction, so no connection is held meanwhile.
+     */
     @Override
     public UserDetails registerUser(String username, String password, String rePassword, String email, String firstname,
             String lastname) {
@@ -45,23 +115,26 @@ public class UserServiceImpl implements UserService {
         validateUserData(username, email, password, rePassword);
         String encodedPassword = passwordEncoder.encode(password);
         log.info("Password for user '{}' encoded successfully", username);
-        Role role = roleRepository.findByRolename(UserRole.ROLE_USER)
+        Role role = roleService.findByRolename(UserRole.ROLE_USER)
                 .orElseThrow(() -> {
                     log.error("Role not found: {}", UserRole.ROLE_USER);
                     return new ServerException("Role not found: " + UserRole.ROLE_USER);
                 });
         User user = new User(username, email, encodedPassword, firstname, lastname, role);
-        User persistUser = userRepository.save(user);
-        log.info("User '{}' saved successfully with UUID: {}", username, persistUser.getUserUuid());
-        publisher.publishEvent(new UserCreatedEvent(persistUser));
-        log.info("UserCreatedEvent published for user '{}'", username);
+        User persistUser = transactionOperations.execute(status -> {
+            User savedUser = saveUser(user);
+            log.info("User '{}' saved successfully with UUID: {}", username, savedUser.getUserUuid());
+            publisher.publishEvent(new UserCreatedEvent(savedUser));
+            log.info("UserCreatedEvent published for user '{}'", username);
+            return savedUser;
+        });
 
         return UserDetailsImpl.build(persistUser);
     }
 
     @Override
     @Transactional
-    public UserDetails updateUser(String userUuid, String username, String email, String firstname,
+    public UserDetails updateUser(UUID userUuid, String username, String email, String firstname,
             String lastname) {
         log.debug("Updating user with UUID: {}", userUuid);
         User user = userRepository.findByUserUuid(userUuid)
@@ -69,35 +142,113 @@ public class UserServiceImpl implements UserService {
                     log.error("User not found with UUID: {}", userUuid);
                     return new NotFoundException("User not found with UUID: " + userUuid);
                 });
-        validateUserData(username, email, user);
         user.setUsername(username);
         user.setEmail(email);
         user.setFirstname(firstname);
         user.setLastname(lastname);
-        User updatedUser = userRepository.save(user);
+        User updatedUser = saveUser(user);
+        evict(userUuid);
         log.info("User with UUID '{}' updated successfully", userUuid);
         return UserDetailsImpl.build(updatedUser);
     }
 
     @Override
     @Transactional
-    public void deleteUser(String userUuid) {
+    public void deleteUser(UUID userUuid) {
         log.debug("Deleting user with UUID: {}", userUuid);
         int deleteCount = userRepository.deleteByUserUuid(userUuid);
         if (deleteCount == 0) {
             log.warn("No user found with UUID to delete: {}", userUuid);
             throw new NotFoundException("No user found with UUID: " + userUuid);
         }
+        securityVersionService.revoke(userUuid);
+        evict(userUuid);
         log.info("User with UUID '{}' deleted successfully", userUuid);
     }
 
+    /**
+     * Changes the password and increases the security version in one
+     * transaction, so refresh tokens issued before are no longer accepted. The
+     * new password is hashed before the transaction. The hash is replaced
+     * only if it is still the one that was verified, like
+     * {@link #updatePassword(UUID, String, String)}.
+     */
+    @Override
+    public void changePassword(UUID userUuid, String oldPassword, String password, String rePassword) {
+        log.debug("Changing password of user with UUID: {}", userUuid);
+        UserDetails user = loadUserByUuid(userUuid);
+        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+            log.warn("Old password of user with UUID '{}' does not match", userUuid);
+            throw new IllegalModelArgumentException("Old password is incorrect");
+        }
+        validatePassword(password, rePassword);
+        String encodedPassword = passwordEncoder.encode(password);
+        boolean changed = transactionOperations.execute(status -> {
+            if (userRepository.updatePassword(userUuid, user.getPassword(), encodedPassword) == 0) {
+                return false;
+            }
+            securityVersionService.increment(userUuid);
+            return true;
+        });
+        evict(userUuid);
+        if (!changed) {
+            log.warn("Password of user with UUID '{}' was changed meanwhile", userUuid);
+            throw new IllegalModelArgumentException("Password was changed meanwhile, please try again");
+        }
+        log.info("Password of user with UUID '{}' changed successfully", userUuid);
+    }
+
+    /**
+     * Changes the role and increases the security version, so refresh tokens
+     * carrying the old role are no longer accepted.
+     */
+    @Override
+    @Transactional
+    public void changeRole(UUID userUuid, UserRole rolename) {
+        log.debug("Changing role of user with UUID '{}' to {}", userUuid, rolename);
+        Role role = roleService.findByRolename(rolename)
+                .orElseThrow(() -> {
+                    log.error("Role not found: {}", rolename);
+                    return new NotFoundException("Role not found: " + rolename);
+                });
+        if (userRepository.updateRole(userUuid, role) == 0) {
+            log.warn("No user found with UUID to change role: {}", userUuid);
+            throw new NotFoundException("No user found with UUID: " + userUuid);
+        }
+        securityVersionService.increment(userUuid);
+        evict(userUuid);
+        log.info("Role of user with UUID '{}' changed to {}", userUuid, rolename);
+    }
+
+    /**
+     * Replaces the password hash only if it is still {@code oldPassword}, so a
+     * delayed rehash never overwrites a newer password. A rehash keeps the
+     * password, so the security version is not increased.
+     */
+    @Override
+    @Transactional
+    public boolean updatePassword(UUID userUuid, String oldPassword, String newPassword) {
+        boolean updated = userRepository.updatePassword(userUuid, oldPassword, newPassword) > 0;
+        evict(userUuid);
+        log.debug("Password hash of user with UUID '{}' {}", userUuid, updated ? "updated" : "changed meanwhile");
+        return updated;
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) {
         log.debug("Loading user by username: {}", username);
-        return userRepository.findByUsername(username)
+        UUID userUuid = userUuidsByUsername.getIfPresent(username);
+        if (userUuid != null) {
+            UserDetails cachedUser = usersByUuid.getIfPresent(userUuid);
+            // the username may have been given to another user since the mapping was cached
+            if (cachedUser != null && cachedUser.getUsername().equals(username) && isCurrent(cachedUser)) {
+                return cachedUser;
+            }
+        }
+        return userRepository.findDetailsByUsername(username)
                 .map(user -> {
                     log.info("User '{}' loaded successfully", username);
-                    return UserDetailsImpl.build(user);
+                    return cache(UserDetailsImpl.build(user));
                 })
                 .orElseThrow(() -> {
                     log.error("User not found with username: {}", username);
@@ -106,12 +257,16 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public UserDetails loadUserByUuid(String userUuid) {
+    public UserDetails loadUserByUuid(UUID userUuid) {
         log.debug("Loading user by UUID: {}", userUuid);
-        return userRepository.findByUserUuid(userUuid)
+        UserDetails cachedUser = usersByUuid.getIfPresent(userUuid);
+        if (cachedUser != null && isCurrent(cachedUser)) {
+            return cachedUser;
+        }
+        return userRepository.findDetailsByUserUuid(userUuid)
                 .map(user -> {
                     log.info("User with UUID '{}' loaded successfully", userUuid);
-                    return UserDetailsImpl.build(user);
+                    return cache(UserDetailsImpl.build(user));
                 })
                 .orElseThrow(() -> {
                     log.error("User not found with UUID: {}", userUuid);
@@ -119,21 +274,78 @@ public class UserServiceImpl implements UserService {
                 });
     }
 
-    private void validateUserData(String username, String email, User user) {
+    // false once another instance changed the password or role or deleted the user, the reload replaces the entry
+    private boolean isCurrent(UserDetails cachedUser) {
+        UserDetailsImpl user = (UserDetailsImpl) cachedUser;
+        return securityVersionService.isCurrent(user.getUserUuid(), user.getSecurityVersion());
+    }
 
-        if (userRepository.existsByUsername(username) && !user.getUsername().equals(username)) {
-            log.warn("User with username '{}' already exists", username);
-            throw new IllegalModelArgumentException("User with username '" + username + "' already exists");
+    private UserDetails cache(UserDetails userDetails) {
+        UUID userUuid = ((UserDetailsImpl) userDetails).getUserUuid();
+        usersByUuid.put(userUuid, userDetails);
+        userUuidsByUsername.put(userDetails.getUsername(), userUuid);
+        return userDetails;
+    }
+
+    // evicts again after the commit, a concurrent load may have cached the old row in between
+    private void evict(UUID userUuid) {
+        invalidate(userUuid);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userUuid);
+                }
+            });
         }
+    }
 
-        if (userRepository.existsByEmail(email) && !user.getEmail().equals(email)) {
-            log.warn("User with email '{}' already exists", email);
-            throw new IllegalModelArgumentException("User with email '" + email + "' already exists");
+    private void invalidate(UUID userUuid) {
+        UserDetails cachedUser = usersByUuid.getIfPresent(userUuid);
+        usersByUuid.invalidate(userUuid);
+        if (cachedUser != null) {
+            userUuidsByUsername.invalidate(cachedUser.getUsername());
+        }
+    }
+
+    // flushes so that a violated unique constraint is reported here and not at commit
+    private User saveUser(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateUserData(e, user);
+        }
+    }
+
+    private RuntimeException duplicateUserData(DataIntegrityViolationException e, User user) {
+        String violation = violation(e);
+        // the column is matched as well for schemas created before the constraints were named
+        if (violation.contains(User.USERNAME_CONSTRAINT) || violation.contains("(username")) {
+            log.warn("User with username '{}' already exists", user.getUsername());
+            return new IllegalModelArgumentException("User with username '" + user.getUsername() + "' already exists");
+        }
+        if (violation.contains(User.EMAIL_CONSTRAINT) || violation.contains("(email")) {
+            log.warn("User with email '{}' already exists", user.getEmail());
+            return new IllegalModelArgumentException("User with email '" + user.getEmail() + "' already exists");
         }
-        log.debug("Validation passed for username '{}' and email '{}'", username, email);
+        return e;
+    }
+
+    private static String violation(DataIntegrityViolationException e) {
+        String violation = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        if (e.getCause() instanceof ConstraintViolationException constraintViolation
+                && constraintViolation.getConstraintName() != null) {
+            violation = constraintViolation.getConstraintName() + " " + violation;
+        }
+        return violation.toLowerCase(Locale.ROOT);
     }
 
     private void validateUserData(String username, String email, String password, String rePassword) {
+        validatePassword(password, rePassword);
+        log.debug("Validation passed for username '{}', email '{}' and password", username, email);
+    }
+
+    private void validatePassword(String password, String rePassword) {
 
         if (!password.equals(rePassword)) {
             log.warn("Password and confirm password do not match");
@@ -145,18 +357,6 @@ public class UserServiceImpl implements UserService {
             throw new IllegalModelArgumentException(
                     "Password '" + password + "' is compromised. Please choose a different password.");
         }
-
-        if (userRepository.existsByUsername(username)) {
-            log.warn("User with username '{}' already exists", username);
-            throw new IllegalModelArgumentException("User with username '" + username + "' already exists");
-        }
-
-        if (userRepository.existsByEmail(email)) {
-            log.warn("User with email '{}' already exists", email);
-            throw new IllegalModelArgumentException("User with email '" + email + "' already exists");
-        }
-
-        log.debug("Validation passed for username '{}', email '{}' and password", username, email);
     }
 
 }
@@ -0,0 +1,7 @@
+package com.sonastan.jwt_auth.infrastructure.constants;
+
+public enum FailurePolicy {
+    FAIL_OPEN,
+    FAIL_CLOSED
+
+}
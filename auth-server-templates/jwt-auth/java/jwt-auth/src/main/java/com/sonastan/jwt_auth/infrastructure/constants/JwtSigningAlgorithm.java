@@ -0,0 +1,19 @@
+package com.sonastan.jwt_auth.infrastructure.constants;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.KeyType;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum JwtSigningAlgorithm {
+    RS256(JWSAlgorithm.RS256, KeyType.RSA),
+    ES256(JWSAlgorithm.ES256, KeyType.EC),
+    EdDSA(JWSAlgorithm.EdDSA, KeyType.OKP);
+
+    private final JWSAlgorithm jwsAlgorithm;
+
+    private final KeyType keyType;
+}
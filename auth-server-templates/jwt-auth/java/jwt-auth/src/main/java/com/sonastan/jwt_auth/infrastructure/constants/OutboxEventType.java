@@ -0,0 +1,5 @@
+package com.sonastan.jwt_auth.infrastructure.constants;
+
+public enum OutboxEventType {
+    USER_CREATED
+}
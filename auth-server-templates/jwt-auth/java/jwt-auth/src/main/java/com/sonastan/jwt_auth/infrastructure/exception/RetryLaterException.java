@@ -0,0 +1,21 @@
+package com.sonastan.jwt_auth.infrastructure.exception;
+
+import java.time.Duration;
+
+import lombok.Getter;
+
+/**
+ * A request that was refused for now and can be sent again after
+ * {@link #getRetryAfter()}, which is returned in the Retry-After header.
+ */
+@Getter
+public abstract class RetryLaterException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    protected RetryLaterException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+}
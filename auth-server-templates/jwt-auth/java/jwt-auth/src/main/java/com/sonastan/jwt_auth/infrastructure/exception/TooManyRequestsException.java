@@ -0,0 +1,11 @@
+package com.sonastan.jwt_auth.infrastructure.exception;
+
+import java.time.Duration;
+
+public class TooManyRequestsException extends RetryLaterException {
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.sonastan.jwt_auth.infrastructure.persistence;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param pollInterval delay between two runs of the dispatcher
+ * @param batchSize    events delivered in one transaction
+ * @param maxAttempts  failed deliveries after which an event is no longer
+ *                     dispatched and stays in the table for inspection
+ */
+@ConfigurationProperties(prefix = "outbox")
+public record OutboxProperties(
+        @DefaultValue("1s") Duration pollInterval,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("10") int maxAttempts) {
+
+}
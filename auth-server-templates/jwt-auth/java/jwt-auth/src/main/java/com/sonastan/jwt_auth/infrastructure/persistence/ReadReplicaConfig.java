@@ -0,0 +1,111 @@
+package com.sonastan.jwt_auth.infrastructure.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the auto-configured data source with one that sends read-only
+ * transactions to the replicas. The connection is only fetched when the first
+ * statement runs, after the transaction was marked read-only; transactions that
+ * are not read-only always run on the primary.
+ * <p>
+ * The replica pools are configured like the primary pool
+ * (spring.datasource.hikari), but with read-only connections.
+ * <p>
+ * The writers of a transaction are the authenticated user and the client
+ * address of the current request. The address covers requests without a user,
+ * e.g. a login right after the password was changed.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "read-replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    protected HikariDataSource primaryDataSource(DataSourceProperties properties,
+            ObjectProvider<JdbcConnectionDetails> connectionDetailsProvider) {
+        // connection details of a service connection (e.g. a Testcontainers database) win over spring.datasource
+        JdbcConnectionDetails connectionDetails = connectionDetailsProvider.getIfAvailable();
+        if (connectionDetails == null) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+        return DataSourceBuilder.create(properties.getClassLoader())
+                .type(HikariDataSource.class)
+                .driverClassName(connectionDetails.getDriverClassName())
+                .url(connectionDetails.getJdbcUrl())
+                .username(connectionDetails.getUsername())
+                .password(connectionDetails.getPassword())
+                .build();
+    }
+
+    @Bean
+    protected ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, ReadReplicaProperties properties,
+            MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : properties.urls()) {
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setPoolName(primaryDataSource.getPoolName() + "-replica-" + replicas.size());
+            replica.setJdbcUrl(url);
+            if (properties.username() != null) {
+                replica.setUsername(properties.username());
+                replica.setPassword(properties.password());
+            }
+            replica.setReadOnly(true);
+            // an unreachable replica must not prevent the startup, reads fall back to the primary
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        return new ReplicaDataSource(primaryDataSource, replicas, properties, ReadReplicaConfig::currentWriters,
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    protected DataSource dataSource(ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaDataSource.writes());
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    private static Collection<String> currentWriters() {
+        List<String> writers = new ArrayList<>(2);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            writers.add("user:" + authentication.getName());
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            writers.add("address:" + attributes.getRequest().getRemoteAddr());
+        }
+        return writers;
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.sonastan.jwt_auth.infrastructure.persistence;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "read-replicas")
+public record ReadReplicaProperties(@DefaultValue("false") boolean enabled,
+        @DefaultValue List<String> urls,
+        String username,
+        String password,
+        @DefaultValue("1s") Duration maxLag,
+        @DefaultValue("1s") Duration checkInterval,
+        @DefaultValue(ReadReplicaProperties.POSTGRESQL_LAG_QUERY) String lagQuery) {
+
+    /**
+     * Replay lag of a PostgreSQL streaming replica in seconds, 0 when it replayed
+     * everything it received.
+     */
+    public static final String POSTGRESQL_LAG_QUERY = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() "
+            + "then 0 else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+}
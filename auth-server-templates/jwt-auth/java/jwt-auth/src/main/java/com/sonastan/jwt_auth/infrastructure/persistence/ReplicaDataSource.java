@@ -0,0 +1,227 @@
+package com.sonastan.jwt_auth.infrastructure.persistence;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands out the connections of read-only transactions from the replicas in
+ * turn. A replica is skipped while it cannot be reached, while its replication
+ * lag is above max-lag, and, for the writers of the current transaction, until
+ * it has replayed their last write committed through {@link #writes()}. A
+ * writer is whatever the supplier returns for the current thread, e.g. the
+ * authenticated user, so a user reads its own update while writes of other
+ * users, and of background jobs without a writer, leave the replicas in use.
+ * Without a usable replica the connection comes from the primary.
+ * <p>
+ * The lag of every replica is queried each check-interval. A replica with a
+ * lag of L at the start of a check has applied all writes committed L before
+ * that point. Writes of other instances are seen after at most max-lag.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final ReadReplicaProperties properties;
+
+    private final Counter primaryConnections;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Supplier<Collection<String>> writers;
+
+    // writer -> System.nanoTime() of its last completed write, dropped once every usable replica replayed it
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> replicas, ReadReplicaProperties properties,
+            Supplier<Collection<String>> writers, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.properties = properties;
+        this.writers = writers;
+        this.replicas = replicas.stream().map(dataSource -> new Replica(dataSource, meterRegistry)).toList();
+        this.primaryConnections = Counter.builder("datasource.read-only.connections")
+                .description("Connections handed out for read-only transactions")
+                .tag("target", "primary")
+                .register(meterRegistry);
+        log.info("Routing read-only transactions to {} replicas", replicas.size());
+    }
+
+    /**
+     * The primary, which notes the completion of every transaction that got a
+     * connection from it for the writers of that transaction.
+     */
+    public DataSource writes() {
+        return new DelegatingDataSource(primary) {
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                recordWrite(writers.get());
+                return super.getConnection();
+            }
+        };
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Long lastWrite = lastWrite(writers.get());
+        int first = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(first + i, replicas.size()));
+            if (replica.isUsable(lastWrite, properties.maxLag().toNanos())) {
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replica.connections.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.unavailable(e);
+                }
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    @Scheduled(fixedDelayString = "${read-replicas.check-interval:1s}")
+    public void checkReplicas() {
+        long checkStart = System.nanoTime();
+        for (Replica replica : replicas) {
+            long start = System.nanoTime();
+            try (Connection connection = replica.dataSource.getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery(properties.lagQuery())) {
+                double lag = resultSet.next() ? resultSet.getDouble(1) : Double.NaN;
+                if (Double.isNaN(lag) || resultSet.wasNull()) {
+                    replica.unavailable(new SQLException("The lag query returned no lag"));
+                } else {
+                    replica.available(lag, start);
+                }
+            } catch (SQLException e) {
+                replica.unavailable(e);
+            }
+        }
+        // a replica that is usable after this check replayed everything written max-lag before its start
+        long replayedByAll = checkStart - properties.maxLag().toNanos();
+        lastWrites.values().removeIf(write -> replayedByAll - write > 0);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private void recordWrite(Collection<String> writers) {
+        if (writers.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            completeWrite(writers);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                completeWrite(writers);
+            }
+        });
+    }
+
+    private void completeWrite(Collection<String> writers) {
+        long now = System.nanoTime();
+        for (String writer : writers) {
+            lastWrites.merge(writer, now, (last, write) -> write - last > 0 ? write : last);
+        }
+    }
+
+    // the latest write of the given writers, null if none of them wrote recently
+    private Long lastWrite(Collection<String> writers) {
+        Long lastWrite = null;
+        for (String writer : writers) {
+            Long write = lastWrites.get(writer);
+            if (write != null && (lastWrite == null || write - lastWrite > 0)) {
+                lastWrite = write;
+            }
+        }
+        return lastWrite;
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+
+        private final Counter connections;
+
+        private volatile boolean available;
+
+        private volatile double lagSeconds = Double.NaN;
+
+        // System.nanoTime() up to which all writes of the primary were replayed
+        private volatile long replayedUpTo;
+
+        private Replica(HikariDataSource dataSource, MeterRegistry meterRegistry) {
+            this.dataSource = dataSource;
+            this.connections = Counter.builder("datasource.read-only.connections")
+                    .description("Connections handed out for read-only transactions")
+                    .tag("target", dataSource.getPoolName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.lag", this, replica -> replica.lagSeconds)
+                    .description("Replication lag measured by the last check, NaN while the replica is unavailable")
+                    .tag("pool", dataSource.getPoolName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+
+        private boolean isUsable(Long lastWrite, long maxLagNanos) {
+            return available && lagSeconds * 1e9 <= maxLagNanos && (lastWrite == null || replayedUpTo - lastWrite > 0);
+        }
+
+        private void available(double lagSeconds, long checkStart) {
+            if (!available) {
+                log.info("Replica {} is available with a lag of {}s", dataSource.getPoolName(), lagSeconds);
+            }
+            this.lagSeconds = lagSeconds;
+            this.replayedUpTo = checkStart - (long) (lagSeconds * 1e9);
+            this.available = true;
+        }
+
+        private void unavailable(SQLException e) {
+            if (available) {
+                log.warn("Replica {} is unavailable, reading from the primary: {}", dataSource.getPoolName(),
+                        e.getMessage());
+            }
+            this.lagSeconds = Double.NaN;
+            this.available = false;
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.sonastan.jwt_auth.infrastructure.persistence;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param flushInterval delay between two flushes of the recorded logins
+ * @param flushSize     users with recorded logins that trigger a flush before
+ *                      the interval elapsed, also the users updated per
+ *                      transaction
+ */
+@ConfigurationProperties(prefix = "user-activity")
+public record UserActivityProperties(
+        @DefaultValue("5s") Duration flushInterval,
+        @DefaultValue("500") int flushSize) {
+
+}
@@ -0,0 +1,9 @@
+package com.sonastan.jwt_auth.infrastructure.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "user-import")
+public record UserImportProperties(@DefaultValue("1000") int chunkSize) {
+
+}
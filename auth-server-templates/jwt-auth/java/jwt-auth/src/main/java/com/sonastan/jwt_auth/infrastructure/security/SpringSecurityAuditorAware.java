@@ -1,6 +1,7 @@
 package com.sonastan.jwt_auth.infrastructure.security;
 
 import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.security.core.Authentication;
@@ -22,7 +23,7 @@ public class SpringSecurityAuditorAware implements AuditorAware<String> {
                 return Optional.ofNullable(jwt.getSubject());
             } else if (authentication.getPrincipal() instanceof UserDetailsImpl) {
                 UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-                return Optional.ofNullable(userDetails.getUserUuid());
+                return Optional.ofNullable(userDetails.getUserUuid()).map(UUID::toString);
             } else {
                 return Optional.ofNullable(authentication.getName() + "-Unknown");
             }
@@ -1,53 +1,90 @@
 package com.sonastan.jwt_auth.infrastructure.security;
 
-import java.io.InputStream;
 import java.util.List;
 import java.util.function.Supplier;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationManagerResolver;
 import org.springframework.security.authentication.ProviderManager;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.authentication.password.CompromisedPasswordChecker;
-import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.web.authentication.password.HaveIBeenPwnedRestApiPasswordChecker;
+import org.springframework.security.web.authentication.RequestMatcherDelegatingAuthenticationManagerResolver;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.csrf.CsrfToken;
 import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
 import org.springframework.security.web.csrf.CsrfTokenRequestHandler;
 import org.springframework.security.web.csrf.XorCsrfTokenRequestAttributeHandler;
+import org.springframework.security.web.session.DisableEncodeUrlFilter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
-
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
-
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import com.sonastan.jwt_auth.infrastructure.constants.JwtType;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.CachedSignerJwtEncoder;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.CachingJwtDecoder;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtDecoderCacheProperties;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtRefreshProperties;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtRevocationProperties;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtSigningKey;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtSigningProperties;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtTypeAuthenticationConverter;
+import com.sonastan.jwt_auth.infrastructure.security.limit.ConcurrencyLimitFilter;
+import com.sonastan.jwt_auth.infrastructure.security.limit.ConcurrencyLimitProperties;
+import com.sonastan.jwt_auth.infrastructure.security.login.LoginThrottle;
+import com.sonastan.jwt_auth.infrastructure.security.login.LoginThrottleProperties;
+import com.sonastan.jwt_auth.infrastructure.security.login.RateLimiter;
+import com.sonastan.jwt_auth.infrastructure.security.login.SlidingWindowRateLimiter;
+import com.sonastan.jwt_auth.infrastructure.security.password.BoundedPasswordEncoder;
+import com.sonastan.jwt_auth.infrastructure.security.password.CompromisedPasswordProperties;
+import com.sonastan.jwt_auth.infrastructure.security.password.LocalCompromisedPasswordChecker;
+import com.sonastan.jwt_auth.infrastructure.security.password.PasswordHashCalibrator;
+import com.sonastan.jwt_auth.infrastructure.security.password.PasswordHashingProperties;
+import com.sonastan.jwt_auth.infrastructure.security.password.RangeCachingCompromisedPasswordChecker;
+import com.sonastan.jwt_auth.infrastructure.security.user.UpgradingDaoAuthenticationProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity
+@EnableConfigurationProperties({ JwtSigningProperties.class, JwtDecoderCacheProperties.class,
+        JwtRefreshProperties.class, JwtRevocationProperties.class, CompromisedPasswordProperties.class,
+        PasswordHashingProperties.class, LoginThrottleProperties.class, ConcurrencyLimitProperties.class })
 public class WebSecurityConfig {
 
     @Bean
-    protected SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    protected SecurityFilterChain securityFilterChain(HttpSecurity http, JwtDecoder decoder,
+            ConcurrencyLimitProperties limitProperties, MeterRegistry meterRegistry,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) throws Exception {
+        if (limitProperties.enabled()) {
+            // first in the chain, so shed requests cost neither a token decode nor a CSRF check. Not a bean,
+            // which would register it with the servlet container a second time.
+            http.addFilterBefore(new ConcurrencyLimitFilter(limitProperties, meterRegistry, exceptionResolver),
+                    DisableEncodeUrlFilter.class);
+        }
         http.authorizeHttpRequests(r -> r
                 .requestMatchers("/v1/auth/login").permitAll()
                 .requestMatchers("/v1/auth/csrf").permitAll()
@@ -61,41 +98,88 @@ public class WebSecurityConfig {
                 .cors(corsConfig -> corsConfig.configurationSource(corsConfigurationSource()))
                 .formLogin(form -> form.disable())
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(Customizer.withDefaults()))
+                        .authenticationManagerResolver(bearerTokenAuthenticationManagerResolver(decoder)))
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .httpBasic(httpBasic -> httpBasic.disable());
         return http.build();
     }
 
+    private AuthenticationManagerResolver<HttpServletRequest> bearerTokenAuthenticationManagerResolver(
+            JwtDecoder decoder) {
+        // the token type is checked while the bearer token is authenticated, before the request reaches a controller
+        return RequestMatcherDelegatingAuthenticationManagerResolver.builder()
+                .add(PathPatternRequestMatcher.withDefaults().matcher("/v1/auth/refresh"),
+                        jwtAuthenticationManager(decoder, JwtType.REFRESH))
+                .add(AnyRequestMatcher.INSTANCE, jwtAuthenticationManager(decoder, JwtType.ACCESS))
+                .build();
+    }
+
+    private AuthenticationManager jwtAuthenticationManager(JwtDecoder decoder, JwtType type) {
+        JwtAuthenticationProvider jwtAuthenticationProvider = new JwtAuthenticationProvider(decoder);
+        jwtAuthenticationProvider.setJwtAuthenticationConverter(new JwtTypeAuthenticationConverter(type));
+        return new ProviderManager(jwtAuthenticationProvider);
+    }
+
     @Bean
     protected AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder,
-            UserDetailsService userDetailsService) {
-        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider(userDetailsService);
-        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
-        return new ProviderManager(daoAuthenticationProvider);
+            UserDetailsService userDetailsService, UserDetailsPasswordService userDetailsPasswordService,
+            PasswordHashingProperties hashingProperties) {
+        return new ProviderManager(new UpgradingDaoAuthenticationProvider(userDetailsService, passwordEncoder,
+                userDetailsPasswordService, hashingProperties.upgradeQueueCapacity()));
     }
 
+    /**
+     * Counts the attempts of this instance only. With several instances behind a
+     * load balancer, replace this bean with one whose {@link RateLimiter}s share
+     * their counts, or lower the limits accordingly.
+     */
     @Bean
-    protected JwtEncoder encoder() {
-        // the keys are only for development purposes, do not use them in production
-        try (InputStream is = new ClassPathResource("keys/private.pem").getInputStream()) {
-            JWK jwk = RSAKey.parseFromPEMEncodedObjects(new String(is.readAllBytes()));
-            JWKSource<SecurityContext> jwkSource = new ImmutableJWKSet<>(new JWKSet(jwk));
-            return new NimbusJwtEncoder(jwkSource);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load private key for JWT encoding", e);
+    protected LoginThrottle loginThrottle(LoginThrottleProperties properties, MeterRegistry meterRegistry) {
+        if (!properties.enabled()) {
+            return new LoginThrottle(RateLimiter.UNLIMITED, RateLimiter.UNLIMITED, meterRegistry);
         }
+        return new LoginThrottle(
+                new SlidingWindowRateLimiter(properties.maxAttemptsPerAddress(), properties.window(),
+                        properties.maximumKeys()),
+                new SlidingWindowRateLimiter(properties.maxAttemptsPerUsername(), properties.window(),
+                        properties.maximumKeys()),
+                meterRegistry);
     }
 
     @Bean
-    protected PasswordEncoder passwordEncoder() {
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    protected JwtSigningKey jwtSigningKey(JwtSigningProperties properties) {
+        return JwtSigningKey.load(properties);
     }
 
     @Bean
-    protected CompromisedPasswordChecker compromisedPasswordChecker() {
-        return new HaveIBeenPwnedRestApiPasswordChecker();
+    protected JwtEncoder encoder(JwtSigningKey signingKey) {
+        return new CachedSignerJwtEncoder(signingKey);
+    }
+
+    @Bean
+    protected JwtDecoder decoder(JwtSigningKey signingKey, JwtDecoderCacheProperties cacheProperties,
+            MeterRegistry meterRegistry) {
+        return new CachingJwtDecoder(signingKey.jwtDecoder(), cacheProperties.maximumSize(), meterRegistry);
+    }
+
+    @Bean
+    protected PasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(
+                PasswordHashCalibrator.createPasswordEncoder(properties.algorithm(), properties.targetDuration()),
+                properties, meterRegistry);
+    }
+
+    @Bean
+    protected CompromisedPasswordChecker compromisedPasswordChecker(CompromisedPasswordProperties properties,
+            Environment environment, MeterRegistry meterRegistry) {
+        return switch (properties.mode()) {
+            case REMOTE -> new RangeCachingCompromisedPasswordChecker(properties.remote(),
+                    Threading.VIRTUAL.isActive(environment) ? Thread.ofVirtual().name("hibp-", 0).factory()
+                            : new CustomizableThreadFactory("hibp-"),
+                    meterRegistry);
+            case LOCAL -> new LocalCompromisedPasswordChecker(properties.dataset(), properties.indexOrDefault());
+        };
     }
 
     @Bean
@@ -151,4 +235,4 @@ final class SpaCsrfTokenRequestHandler implements CsrfTokenRequestHandler {
         return (StringUtils.hasText(headerValue) ? this.plain : this.xor).resolveCsrfTokenValue(request, csrfToken);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import java.net.URL;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+import org.springframework.util.Assert;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * {@link JwtEncoder} that signs with a signer built once per key. The
+ * {@code NimbusJwtEncoder} selects the JWK and creates a new signer on every
+ * call. Only the {@code alg}, {@code kid} and {@code typ} headers are
+ * supported, which is all the token service uses.
+ */
+public class CachedSignerJwtEncoder implements JwtEncoder {
+
+    private static final String ENCODING_ERROR_MESSAGE_TEMPLATE = "An error occurred while attempting to encode the Jwt: %s";
+
+    private final JwtSigningKey signingKey;
+
+    private final JWSHeader defaultHeader;
+
+    private final Map<String, Object> defaultHeaders;
+
+    public CachedSignerJwtEncoder(JwtSigningKey signingKey) {
+        this.signingKey = signingKey;
+        this.defaultHeader = new JWSHeader.Builder(signingKey.getJwsAlgorithm())
+                .keyID(signingKey.getJwk().getKeyID())
+                .build();
+        this.defaultHeaders = Map.copyOf(defaultHeader.toJSONObject());
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        Assert.notNull(parameters, "parameters cannot be null");
+        JwtClaimsSet claims = parameters.getClaims();
+        JWSHeader jwsHeader = parameters.getJwsHeader() == null ? defaultHeader
+                : convert(parameters.getJwsHeader());
+        Map<String, Object> headers = jwsHeader == defaultHeader ? defaultHeaders : jwsHeader.toJSONObject();
+
+        SignedJWT signedJwt = new SignedJWT(jwsHeader, convert(claims));
+        try {
+            signedJwt.sign(signingKey.getSigner());
+        } catch (JOSEException e) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                    "Failed to sign the JWT -> " + e.getMessage()), e);
+        }
+        return new Jwt(signedJwt.serialize(), claims.getIssuedAt(), claims.getExpiresAt(), headers,
+                claims.getClaims());
+    }
+
+    private JWSHeader convert(JwsHeader headers) {
+        JWSAlgorithm algorithm = JWSAlgorithm.parse(headers.getAlgorithm().getName());
+        if (!signingKey.getJwsAlgorithm().equals(algorithm)) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                    "The signing key only supports " + signingKey.getJwsAlgorithm()));
+        }
+        List<String> unsupported = headers.getHeaders().keySet().stream()
+                .filter(name -> !List.of("alg", "kid", "typ").contains(name))
+                .toList();
+        if (!unsupported.isEmpty()) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                    "Unsupported JWS headers " + unsupported));
+        }
+        JWK jwk = signingKey.getJwk();
+        String keyId = headers.getKeyId() != null ? headers.getKeyId() : jwk.getKeyID();
+        String type = headers.getType();
+        return new JWSHeader.Builder(algorithm)
+                .keyID(keyId)
+                .type(type != null ? new JOSEObjectType(type) : null)
+                .build();
+    }
+
+    private JWTClaimsSet convert(JwtClaimsSet claims) {
+        JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+        claims.getClaims().forEach((name, value) -> {
+            switch (name) {
+                case JwtClaimNames.EXP, JwtClaimNames.NBF, JwtClaimNames.IAT ->
+                    builder.claim(name, Date.from((Instant) value));
+                default -> builder.claim(name, convertValue(value));
+            }
+        });
+        return builder.build();
+    }
+
+    private Object convertValue(Object value) {
+        if (value instanceof Instant instant) {
+            return instant.getEpochSecond();
+        }
+        if (value instanceof URL url) {
+            return url.toExternalForm();
+        }
+        return value;
+    }
+
+}
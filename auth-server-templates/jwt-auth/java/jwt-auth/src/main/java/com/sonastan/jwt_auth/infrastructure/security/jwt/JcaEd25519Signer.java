@@ -0,0 +1,68 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.EdECPrivateKeySpec;
+import java.security.spec.NamedParameterSpec;
+import java.util.Set;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+
+/**
+ * EdDSA signer on top of the JDK Ed25519 provider. Nimbus' own Ed25519Signer
+ * needs Tink on the classpath.
+ */
+final class JcaEd25519Signer implements JWSSigner {
+
+    private final JCAContext jcaContext = new JCAContext();
+
+    private final PrivateKey privateKey;
+
+    JcaEd25519Signer(OctetKeyPair octetKeyPair) throws JOSEException {
+        if (!Curve.Ed25519.equals(octetKeyPair.getCurve()) || !octetKeyPair.isPrivate()) {
+            throw new JOSEException("EdDSA signing requires a private Ed25519 key");
+        }
+        try {
+            this.privateKey = KeyFactory.getInstance("Ed25519").generatePrivate(
+                    new EdECPrivateKeySpec(NamedParameterSpec.ED25519, octetKeyPair.getDecodedD()));
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Invalid Ed25519 private key", e);
+        }
+    }
+
+    @Override
+    public Base64URL sign(JWSHeader header, byte[] signingInput) throws JOSEException {
+        if (!JWSAlgorithm.EdDSA.equals(header.getAlgorithm())) {
+            throw new JOSEException("Unsupported JWS algorithm: " + header.getAlgorithm());
+        }
+        try {
+            // Signature instances are stateful, one per call keeps the signer thread-safe
+            Signature signature = Signature.getInstance("Ed25519");
+            signature.initSign(privateKey);
+            signature.update(signingInput);
+            return Base64URL.encode(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Failed to create Ed25519 signature", e);
+        }
+    }
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return Set.of(JWSAlgorithm.EdDSA);
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+        return jcaContext;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.HexFormat;
+import java.util.Set;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+
+final class JcaEd25519Verifier implements JWSVerifier {
+
+    // DER SubjectPublicKeyInfo header for Ed25519, followed by the 32 byte public key
+    private static final byte[] X509_PREFIX = HexFormat.of().parseHex("302a300506032b6570032100");
+
+    private final JCAContext jcaContext = new JCAContext();
+
+    private final PublicKey publicKey;
+
+    JcaEd25519Verifier(OctetKeyPair octetKeyPair) throws JOSEException {
+        if (!Curve.Ed25519.equals(octetKeyPair.getCurve())) {
+            throw new JOSEException("EdDSA verification requires an Ed25519 key");
+        }
+        byte[] x = octetKeyPair.getDecodedX();
+        byte[] encoded = new byte[X509_PREFIX.length + x.length];
+        System.arraycopy(X509_PREFIX, 0, encoded, 0, X509_PREFIX.length);
+        System.arraycopy(x, 0, encoded, X509_PREFIX.length, x.length);
+        try {
+            this.publicKey = KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Invalid Ed25519 public key", e);
+        }
+    }
+
+    PublicKey getPublicKey() {
+        return publicKey;
+    }
+
+    @Override
+    public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signature) throws JOSEException {
+        if (!JWSAlgorithm.EdDSA.equals(header.getAlgorithm())) {
+            throw new JOSEException("Unsupported JWS algorithm: " + header.getAlgorithm());
+        }
+        try {
+            Signature verifier = Signature.getInstance("Ed25519");
+            verifier.initVerify(publicKey);
+            verifier.update(signingInput);
+            return verifier.verify(signature.decode());
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return Set.of(JWSAlgorithm.EdDSA);
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+        return jcaContext;
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "jwt.decoder-cache")
+public record JwtDecoderCacheProperties(@DefaultValue("10000") long maximumSize) {
+
+}
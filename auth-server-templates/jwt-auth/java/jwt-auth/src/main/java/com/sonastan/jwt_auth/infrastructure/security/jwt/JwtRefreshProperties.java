@@ -0,0 +1,17 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import com.sonastan.jwt_auth.infrastructure.constants.RefreshMode;
+
+@ConfigurationProperties(prefix = "jwt.refresh")
+public record JwtRefreshProperties(@DefaultValue("database") RefreshMode mode,
+        @DefaultValue("1h") Duration tokenTtl,
+        @DefaultValue("5s") Duration versionSyncInterval,
+        @DefaultValue("30s") Duration versionSyncOverlap,
+        @DefaultValue("1m") Duration versionPurgeInterval) {
+
+}
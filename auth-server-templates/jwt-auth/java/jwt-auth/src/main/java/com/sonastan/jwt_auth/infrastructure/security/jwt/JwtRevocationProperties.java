@@ -0,0 +1,16 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "jwt.revocation")
+public record JwtRevocationProperties(@DefaultValue("10m") Duration bucketWidth,
+        @DefaultValue("100000") int expectedInsertionsPerBucket,
+        @DefaultValue("0.01") double falsePositiveProbability,
+        @DefaultValue("5s") Duration syncInterval,
+        @DefaultValue("30s") Duration syncOverlap,
+        @DefaultValue("1m") Duration purgeInterval) {
+
+}
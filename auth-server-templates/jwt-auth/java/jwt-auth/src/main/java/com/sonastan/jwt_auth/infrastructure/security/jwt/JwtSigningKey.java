@@ -0,0 +1,136 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PublicKey;
+import java.util.Set;
+
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.proc.SingleKeyJWSKeySelector;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.sonastan.jwt_auth.infrastructure.constants.JwtSigningAlgorithm;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The parsed signing key together with a signer and verifier that are built
+ * once and shared by all threads. The Nimbus RSA, EC and the JCA Ed25519
+ * signers and verifiers keep no per-call state.
+ */
+@Getter
+@Slf4j
+public class JwtSigningKey {
+
+    private final JwtSigningAlgorithm algorithm;
+
+    private final JWK jwk;
+
+    private final JWSSigner signer;
+
+    private final JWSVerifier verifier;
+
+    private final PublicKey publicKey;
+
+    JwtSigningKey(JwtSigningAlgorithm algorithm, JWK jwk) throws JOSEException {
+        if (!algorithm.getKeyType().equals(jwk.getKeyType())) {
+            throw new JOSEException("Algorithm " + algorithm + " requires a " + algorithm.getKeyType()
+                    + " key, but found " + jwk.getKeyType());
+        }
+        this.algorithm = algorithm;
+        this.jwk = jwk;
+        this.signer = switch (algorithm) {
+            case RS256 -> new RSASSASigner(jwk.toRSAKey());
+            case ES256 -> new ECDSASigner(jwk.toECKey());
+            case EdDSA -> new JcaEd25519Signer(jwk.toOctetKeyPair());
+        };
+        switch (algorithm) {
+            case RS256 -> {
+                this.publicKey = jwk.toRSAKey().toPublicKey();
+                this.verifier = new RSASSAVerifier(jwk.toRSAKey().toPublicJWK());
+            }
+            case ES256 -> {
+                this.publicKey = jwk.toECKey().toPublicKey();
+                this.verifier = new ECDSAVerifier(jwk.toECKey().toPublicJWK());
+            }
+            case EdDSA -> {
+                JcaEd25519Verifier ed25519Verifier = new JcaEd25519Verifier(jwk.toOctetKeyPair().toPublicJWK());
+                this.publicKey = ed25519Verifier.getPublicKey();
+                this.verifier = ed25519Verifier;
+            }
+            default -> throw new JOSEException("Unsupported JWT signing algorithm: " + algorithm);
+        }
+    }
+
+    public static JwtSigningKey load(JwtSigningProperties properties) {
+        // the keys are only for development purposes, do not use them in production
+        try (InputStream is = properties.keyLocation().getInputStream()) {
+            String content = new String(is.readAllBytes(), StandardCharsets.UTF_8).trim();
+            // PEM covers RSA and EC keys, Ed25519 keys are configured as JWK JSON
+            JWK jwk = content.startsWith("{") ? JWK.parse(content) : JWK.parseFromPEMEncodedObjects(content);
+            log.info("Loaded {} key for JWT signing with {}", jwk.getKeyType(), properties.algorithm());
+            return new JwtSigningKey(properties.algorithm(), jwk);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load private key for JWT encoding", e);
+        }
+    }
+
+    public JWSAlgorithm getJwsAlgorithm() {
+        return algorithm.getJwsAlgorithm();
+    }
+
+    public JwtDecoder jwtDecoder() {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        // a JWK based key selector cannot convert OKP keys, the single public key covers all three algorithms
+        jwtProcessor.setJWSKeySelector(new SingleKeyJWSKeySelector<>(getJwsAlgorithm(), publicKey));
+        jwtProcessor.setJWSVerifierFactory(verifierFactory());
+        // claims are validated by the NimbusJwtDecoder validators, same as the auto-configured decoder
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new NimbusJwtDecoder(jwtProcessor);
+    }
+
+    /**
+     * Hands the pre-built verifier to the Nimbus JWT processor instead of letting
+     * it create a new one for every decoded token.
+     */
+    private JWSVerifierFactory verifierFactory() {
+        return new JWSVerifierFactory() {
+
+            @Override
+            public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+                if (!getJwsAlgorithm().equals(header.getAlgorithm())) {
+                    throw new JOSEException("Unsupported JWS algorithm: " + header.getAlgorithm());
+                }
+                return verifier;
+            }
+
+            @Override
+            public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+                return verifier.supportedJWSAlgorithms();
+            }
+
+            @Override
+            public JCAContext getJCAContext() {
+                return verifier.getJCAContext();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+import com.sonastan.jwt_auth.infrastructure.constants.JwtSigningAlgorithm;
+
+@ConfigurationProperties(prefix = "jwt.signing")
+public record JwtSigningProperties(JwtSigningAlgorithm algorithm, Resource keyLocation) {
+
+}
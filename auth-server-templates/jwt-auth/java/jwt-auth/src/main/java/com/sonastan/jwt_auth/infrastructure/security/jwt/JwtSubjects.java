@@ -0,0 +1,29 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import java.util.UUID;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * The subject of the issued tokens is the string form of the user uuid, which
+ * is also what the API exchanges.
+ */
+public final class JwtSubjects {
+
+    private JwtSubjects() {
+    }
+
+    public static UUID userUuid(Jwt jwt) {
+        String subject = jwt.getSubject();
+        if (subject == null) {
+            throw new JwtException("Token has no subject");
+        }
+        try {
+            return UUID.fromString(subject);
+        } catch (IllegalArgumentException e) {
+            throw new JwtException("Token subject is not a user uuid");
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import com.sonastan.jwt_auth.infrastructure.constants.JwtType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rejects bearer tokens of the wrong {@link JwtType} while the request is
+ * authenticated, so a refresh token cannot be used on the API and an access
+ * token cannot be used to refresh.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JwtTypeAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final JwtType expectedType;
+
+    private final JwtAuthenticationConverter delegate = new JwtAuthenticationConverter();
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        if (!hasType(jwt, expectedType)) {
+            log.warn("Rejected bearer token for user: {}. Expected: {}, Found: {}", jwt.getSubject(), expectedType,
+                    jwt.getClaimAsString("type"));
+            throw new InvalidBearerTokenException("Invalid token type");
+        }
+        return delegate.convert(jwt);
+    }
+
+    public static boolean hasType(Jwt jwt, JwtType type) {
+        return type.name().toLowerCase().equals(jwt.getClaimAsString("type"));
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filters grouped by the expiry time of their entries. A whole bucket
+ * is dropped once its last entry expired, so the filter never has to support
+ * removals and its false positive rate does not grow over time.
+ * <p>
+ * {@link #mightContain(String)} never returns false for a key that was added
+ * and has not expired yet.
+ */
+public class TimeBucketedBloomFilter {
+
+    private final long bucketWidthSeconds;
+
+    private final int bitCount;
+
+    private final int hashCount;
+
+    private final ConcurrentNavigableMap<Long, AtomicLongArray> buckets = new ConcurrentSkipListMap<>();
+
+    public TimeBucketedBloomFilter(Duration bucketWidth, int expectedInsertionsPerBucket,
+            double falsePositiveProbability) {
+        this.bucketWidthSeconds = Math.max(1, bucketWidth.toSeconds());
+        long bits = (long) Math.ceil(-expectedInsertionsPerBucket * Math.log(falsePositiveProbability)
+                / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertionsPerBucket * Math.log(2)));
+    }
+
+    public void put(String key, Instant expiresAt) {
+        AtomicLongArray bits = buckets.computeIfAbsent(bucket(expiresAt),
+                b -> new AtomicLongArray((bitCount + 63) / 64));
+        long hash1 = hash(key);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(hash1 + i * hash2);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash1 = hash(key);
+        long hash2 = mix(hash1);
+        for (AtomicLongArray bits : buckets.values()) {
+            if (contains(bits, hash1, hash2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops every bucket whose entries all expired before {@code now} and
+     * returns the number of dropped buckets.
+     */
+    public int expire(Instant now) {
+        ConcurrentNavigableMap<Long, AtomicLongArray> expired = buckets.headMap(bucket(now));
+        int size = expired.size();
+        expired.clear();
+        return size;
+    }
+
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    private boolean contains(AtomicLongArray bits, long hash1, long hash2) {
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(hash1 + i * hash2);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long bucket(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), bucketWidthSeconds);
+    }
+
+    private int index(long combinedHash) {
+        return (int) Long.remainderUnsigned(combinedHash, bitCount);
+    }
+
+    // FNV-1a over the UTF-16 chars, finalized with the MurmurHash3 mixer
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash | 1;
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.sonastan.jwt_auth.infrastructure.security.limit;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import com.sonastan.jwt_auth.infrastructure.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sheds requests beyond the concurrency limit of their endpoint before any
+ * other work is done for them, instead of letting them queue in Tomcat. Login,
+ * registration and refresh each have their own {@link VegasConcurrencyLimiter},
+ * so a flood of one cannot use up the budget of the others; all other requests
+ * share one. The actuator is never limited, so the metrics can be scraped
+ * during an overload.
+ * <p>
+ * A shed request is answered with 503 and Retry-After through the
+ * {@link HandlerExceptionResolver}, i.e. the same ProblemDetail as other
+ * errors. Only the response times of successful requests are fed to the
+ * limiter, so a flood of fast rejections cannot collapse the limit.
+ */
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Map<RequestMatcher, VegasConcurrencyLimiter> limiters;
+
+    private final VegasConcurrencyLimiter otherLimiter;
+
+    private final RequestMatcher actuator = PathPatternRequestMatcher.withDefaults().matcher("/actuator/**");
+
+    private final HandlerExceptionResolver exceptionResolver;
+
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry,
+            HandlerExceptionResolver exceptionResolver) {
+        PathPatternRequestMatcher.Builder matcher = PathPatternRequestMatcher.withDefaults();
+        this.limiters = Map.of(
+                matcher.matcher("/v1/auth/login"),
+                new VegasConcurrencyLimiter("login", properties.login(), meterRegistry),
+                matcher.matcher("/v1/user/create"),
+                new VegasConcurrencyLimiter("registration", properties.registration(), meterRegistry),
+                matcher.matcher("/v1/auth/refresh"),
+                new VegasConcurrencyLimiter("refresh", properties.refresh(), meterRegistry));
+        this.otherLimiter = new VegasConcurrencyLimiter("other", properties.other(), meterRegistry);
+        this.exceptionResolver = exceptionResolver;
+        this.retryAfter = properties.retryAfter();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return actuator.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        VegasConcurrencyLimiter limiter = limiter(request);
+        if (!limiter.tryAcquire()) {
+            log.warn("Concurrency limit of {} reached, shedding {}", limiter.limit(), request.getRequestURI());
+            exceptionResolver.resolveException(request, response, null, new ServiceUnavailableException(
+                    "Too many requests in progress, please try again later", retryAfter));
+            return;
+        }
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            // only successful responses are samples: a fast 4xx such as a throttled or failed login, or a
+            // request that failed with an exception, would otherwise pull the lowest response time down and
+            // the limit with it
+            int status = response.getStatus();
+            boolean successful = completed && status < HttpStatus.BAD_REQUEST.value();
+            limiter.release(successful ? System.nanoTime() - start : 0,
+                    completed && status == HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+    }
+
+    private VegasConcurrencyLimiter limiter(HttpServletRequest request) {
+        for (Map.Entry<RequestMatcher, VegasConcurrencyLimiter> entry : limiters.entrySet()) {
+            if (entry.getKey().matches(request)) {
+                return entry.getValue();
+            }
+        }
+        return otherLimiter;
+    }
+
+}
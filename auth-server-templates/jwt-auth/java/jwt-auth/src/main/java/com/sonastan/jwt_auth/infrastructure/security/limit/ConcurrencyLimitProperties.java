@@ -0,0 +1,22 @@
+package com.sonastan.jwt_auth.infrastructure.security.limit;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "concurrency-limit")
+public record ConcurrencyLimitProperties(@DefaultValue("true") boolean enabled,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue Budget login,
+        @DefaultValue Budget registration,
+        @DefaultValue Budget refresh,
+        @DefaultValue Budget other) {
+
+    public record Budget(@DefaultValue("20") int initialLimit,
+            @DefaultValue("4") int minLimit,
+            @DefaultValue("200") int maxLimit) {
+
+    }
+
+}
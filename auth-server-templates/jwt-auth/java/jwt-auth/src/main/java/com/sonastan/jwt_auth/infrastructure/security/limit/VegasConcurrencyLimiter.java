@@ -0,0 +1,135 @@
+package com.sonastan.jwt_auth.infrastructure.security.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.sonastan.jwt_auth.infrastructure.security.limit.ConcurrencyLimitProperties.Budget;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limits the requests in flight with a limit that follows the latency, in the
+ * way TCP Vegas sizes its congestion window. The lowest response time seen is
+ * taken as the time without queueing; the requests queued at the limit are
+ * estimated as {@code limit * (1 - minRtt / rtt)}. The limit grows while that
+ * queue is short and shrinks once it is long, and also whenever a request was
+ * shed further down (503).
+ * <p>
+ * The lowest response time is measured again every 30 × limit samples, so the
+ * limit follows lasting changes such as a slower database. Samples taken while
+ * fewer than half of the limit were in flight leave the limit as it is, as they
+ * say nothing about the capacity.
+ */
+public class VegasConcurrencyLimiter {
+
+    private static final int PROBE_MULTIPLIER = 30;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Counter rejected;
+
+    // guards the estimate, a lock instead of synchronized so waiting virtual threads do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile int limit;
+
+    private double estimatedLimit;
+
+    private long minRttNanos;
+
+    private long samplesSinceProbe;
+
+    public VegasConcurrencyLimiter(String endpoint, Budget budget, MeterRegistry meterRegistry) {
+        this.minLimit = budget.minLimit();
+        this.maxLimit = budget.maxLimit();
+        this.estimatedLimit = Math.clamp(budget.initialLimit(), minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+        this.rejected = Counter.builder("http.server.concurrency.rejected")
+                .description("Requests shed because the concurrency limit was reached")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.limit", this, limiter -> limiter.limit)
+                .description("Current concurrency limit")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.in-flight", inFlight, AtomicInteger::get)
+                .description("Requests in flight")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether the request may proceed, in which case
+     *         {@link #release(long, boolean)} must be called once it completed
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos time the request took
+     * @param dropped  whether the request was shed further down
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        lock.lock();
+        try {
+            update(rttNanos, current, dropped);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    private void update(long rttNanos, int inFlight, boolean dropped) {
+        double log = Math.max(1, Math.log10(estimatedLimit));
+        if (dropped) {
+            setLimit(estimatedLimit - log);
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (minRttNanos == 0 || ++samplesSinceProbe >= PROBE_MULTIPLIER * estimatedLimit) {
+            minRttNanos = rttNanos;
+            samplesSinceProbe = 0;
+            return;
+        }
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+        if (inFlight * 2 < estimatedLimit) {
+            return;
+        }
+        double queued = Math.ceil(estimatedLimit * (1 - (double) minRttNanos / rttNanos));
+        if (queued <= log) {
+            setLimit(estimatedLimit + 6 * log);
+        } else if (queued < 3 * log) {
+            setLimit(estimatedLimit + log);
+        } else if (queued > 6 * log) {
+            setLimit(estimatedLimit - log);
+        }
+    }
+
+    private void setLimit(double estimatedLimit) {
+        this.estimatedLimit = Math.clamp(estimatedLimit, minLimit, maxLimit);
+        this.limit = (int) this.estimatedLimit;
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.sonastan.jwt_auth.infrastructure.security.login;
+
+import java.time.Duration;
+
+import com.sonastan.jwt_auth.infrastructure.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limits the login attempts per client address and per username, checked
+ * before the password is verified, so neither a single client nor a
+ * distributed guess of one user's password can make the server hash without
+ * bound. Attempts for unknown usernames count the same way.
+ * <p>
+ * The address is checked first, so attempts rejected for their address do not
+ * use up the attempts of the username. Every decision is counted in
+ * login_throttle_decisions_total per key and outcome.
+ */
+@Slf4j
+public class LoginThrottle {
+
+    private final RateLimiter byAddress;
+
+    private final RateLimiter byUsername;
+
+    private final Counter addressPermitted;
+
+    private final Counter addressRejected;
+
+    private final Counter usernamePermitted;
+
+    private final Counter usernameRejected;
+
+    public LoginThrottle(RateLimiter byAddress, RateLimiter byUsername, MeterRegistry meterRegistry) {
+        this.byAddress = byAddress;
+        this.byUsername = byUsername;
+        this.addressPermitted = decisions("address", "permitted", meterRegistry);
+        this.addressRejected = decisions("address", "rejected", meterRegistry);
+        this.usernamePermitted = decisions("username", "permitted", meterRegistry);
+        this.usernameRejected = decisions("username", "rejected", meterRegistry);
+    }
+
+    /**
+     * @throws TooManyRequestsException if the address or the username used up
+     *                                  its attempts
+     */
+    public void check(String username, String address) {
+        Duration retryAfter = byAddress.tryAcquire(address);
+        if (!retryAfter.isZero()) {
+            addressRejected.increment();
+            log.warn("Too many login attempts from address {}", address);
+            throw new TooManyRequestsException("Too many login attempts, please try again later", retryAfter);
+        }
+        addressPermitted.increment();
+        retryAfter = byUsername.tryAcquire(username);
+        if (!retryAfter.isZero()) {
+            usernameRejected.increment();
+            log.warn("Too many login attempts for user {}", username);
+            throw new TooManyRequestsException("Too many login attempts, please try again later", retryAfter);
+        }
+        usernamePermitted.increment();
+    }
+
+    private static Counter decisions(String key, String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("login.throttle.decisions")
+                .description("Login attempts permitted or rejected by the throttle")
+                .tag("key", key)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+}
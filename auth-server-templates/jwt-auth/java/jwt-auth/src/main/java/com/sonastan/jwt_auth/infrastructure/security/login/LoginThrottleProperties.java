@@ -0,0 +1,15 @@
+package com.sonastan.jwt_auth.infrastructure.security.login;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "login-throttle")
+public record LoginThrottleProperties(@DefaultValue("true") boolean enabled,
+        @DefaultValue("1m") Duration window,
+        @DefaultValue("10") int maxAttemptsPerUsername,
+        @DefaultValue("100") int maxAttemptsPerAddress,
+        @DefaultValue("100000") long maximumKeys) {
+
+}
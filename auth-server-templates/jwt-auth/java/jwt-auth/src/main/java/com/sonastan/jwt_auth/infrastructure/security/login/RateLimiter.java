@@ -0,0 +1,24 @@
+package com.sonastan.jwt_auth.infrastructure.security.login;
+
+import java.time.Duration;
+
+/**
+ * Counts attempts per key against a limit. Implementations may keep the
+ * counts locally or in a store shared by all instances.
+ */
+public interface RateLimiter {
+
+    /**
+     * Permits every attempt, used when throttling is disabled.
+     */
+    RateLimiter UNLIMITED = key -> Duration.ZERO;
+
+    /**
+     * Counts an attempt for the key unless it would exceed the limit.
+     *
+     * @return {@link Duration#ZERO} when the attempt was permitted, otherwise
+     *         the time until the next attempt would be permitted
+     */
+    Duration tryAcquire(String key);
+
+}
@@ -0,0 +1,100 @@
+package com.sonastan.jwt_auth.infrastructure.security.login;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * In-memory sliding window counter. Attempts are counted in fixed windows, and
+ * the attempts of the sliding window are estimated from the current window
+ * plus the share of the previous window that still overlaps it. This needs two
+ * counters per key instead of a timestamp per attempt.
+ * <p>
+ * The counters of a key are replaced with compare-and-set, so concurrent
+ * attempts never block each other. At most maximum-keys keys are held; keys
+ * without attempts for two windows are evicted, as their counts are zero by
+ * then anyway. Under a flood of distinct keys the least recently used ones are
+ * evicted early, which only resets their counts.
+ */
+public class SlidingWindowRateLimiter implements RateLimiter {
+
+    private final int limit;
+
+    private final long windowNanos;
+
+    private final Ticker ticker;
+
+    private final Cache<String, AtomicReference<Window>> windows;
+
+    public SlidingWindowRateLimiter(int limit, Duration window, long maximumKeys) {
+        this(limit, window, maximumKeys, Ticker.systemTicker());
+    }
+
+    SlidingWindowRateLimiter(int limit, Duration window, long maximumKeys, Ticker ticker) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The limit must be at least 1, was " + limit);
+        }
+        this.limit = limit;
+        this.windowNanos = window.toNanos();
+        this.ticker = ticker;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(window.multipliedBy(2))
+                .ticker(ticker)
+                .build();
+    }
+
+    @Override
+    public Duration tryAcquire(String key) {
+        AtomicReference<Window> reference = windows.get(key, k -> new AtomicReference<>(Window.EMPTY));
+        long now = ticker.read();
+        long index = Math.floorDiv(now, windowNanos);
+        double elapsed = (double) Math.floorMod(now, windowNanos) / windowNanos;
+        while (true) {
+            Window window = reference.get();
+            Window current = window.rollTo(index);
+            if (current.estimate(elapsed) + 1 > limit) {
+                return retryAfter(current, elapsed);
+            }
+            if (reference.compareAndSet(window, current.increment())) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    // the time until the overlap of the previous window shrank enough for one more attempt
+    private Duration retryAfter(Window window, double elapsed) {
+        double wait;
+        if (window.current() + 1 <= limit) {
+            wait = 1 - (double) (limit - window.current() - 1) / window.previous() - elapsed;
+        } else {
+            // only in the next window, where the current window becomes the previous one
+            wait = 1 - elapsed + 1 - (double) (limit - 1) / window.current();
+        }
+        return Duration.ofNanos(Math.max(1, (long) Math.ceil(wait * windowNanos)));
+    }
+
+    private record Window(long index, int previous, int current) {
+
+        private static final Window EMPTY = new Window(Long.MIN_VALUE, 0, 0);
+
+        private Window rollTo(long index) {
+            if (index == this.index) {
+                return this;
+            }
+            return new Window(index, index - 1 == this.index ? current : 0, 0);
+        }
+
+        private double estimate(double elapsed) {
+            return previous * (1 - elapsed) + current;
+        }
+
+        private Window increment() {
+            return new Window(index, previous, current + 1);
+        }
+    }
+
+}
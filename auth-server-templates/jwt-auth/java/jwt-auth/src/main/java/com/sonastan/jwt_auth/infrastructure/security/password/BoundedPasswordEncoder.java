@@ -0,0 +1,158 @@
+package com.sonastan.jwt_auth.infrastructure.security.password;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.sonastan.jwt_auth.infrastructure.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs {@link #encode(CharSequence)} and
+ * {@link #matches(CharSequence, String)} of the delegate on a dedicated pool
+ * sized to the cores, so password hashing can never occupy more CPUs than the
+ * pool has threads and the rest of the API stays responsive during a login
+ * storm. The calling thread waits for the result.
+ * <p>
+ * When all threads are busy and the bounded queue is full, the call fails
+ * immediately with a {@link ServiceUnavailableException} (503 with
+ * Retry-After) instead of queueing more work than the pool can finish.
+ * <p>
+ * The hash time is published per operation and per algorithm of the hash.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+
+    private final PasswordHashingProperties properties;
+
+    private final ThreadPoolExecutor executor;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer waitTimer;
+
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingProperties properties,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        int threads = properties.threadsOrDefault();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("password.hashing.queue", executor, e -> e.getQueue().size())
+                .description("Hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads that are busy")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time a hashing task waited in the queue")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+        log.info("Password hashing pool with {} threads and a queue of {}", threads, properties.queueCapacity());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> {
+            long start = System.nanoTime();
+            String encodedPassword = delegate.encode(rawPassword);
+            recordHashTime("encode", encodedPassword, start);
+            return encodedPassword;
+        });
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> {
+            long start = System.nanoTime();
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            recordHashTime("matches", encodedPassword, start);
+            return matches;
+        });
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // only parses the encoded password
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(Callable<T> hashing) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return hashing.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Password hashing queue is full, rejecting request");
+            throw new ServiceUnavailableException("Too many password checks in progress, please try again later",
+                    properties.retryAfter());
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password hashing was interrupted", properties.retryAfter());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void recordHashTime(String operation, String encodedPassword, long start) {
+        Timer.builder("password.hashing.duration")
+                .description("Time spent hashing")
+                .tag("operation", operation)
+                .tag("algorithm", algorithm(encodedPassword))
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    // the id of a DelegatingPasswordEncoder hash without its version, e.g. "argon2" for "{argon2@SpringSecurity_v5_8}"
+    private static String algorithm(String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith("{")) {
+            return "unknown";
+        }
+        int end = encodedPassword.indexOf('}');
+        if (end < 0) {
+            return "unknown";
+        }
+        int version = encodedPassword.indexOf('@');
+        return encodedPassword.substring(1, version > 0 && version < end ? version : end);
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.sonastan.jwt_auth.infrastructure.security.password;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.Assert;
+
+import com.sonastan.jwt_auth.infrastructure.constants.CompromisedPasswordCheckMode;
+import com.sonastan.jwt_auth.infrastructure.constants.FailurePolicy;
+
+@ConfigurationProperties(prefix = "compromised-password")
+public record CompromisedPasswordProperties(@DefaultValue("remote") CompromisedPasswordCheckMode mode,
+        Path dataset, Path index, @DefaultValue Remote remote) {
+
+    public Path indexOrDefault() {
+        Assert.state(dataset != null, "compromised-password.dataset is required in local mode");
+        return index != null ? index : dataset.resolveSibling(dataset.getFileName() + ".idx");
+    }
+
+    public record Remote(@DefaultValue("https://api.pwnedpasswords.com/range/") URI apiUrl,
+            @DefaultValue("10000") long cacheSize,
+            @DefaultValue("1h") Duration cacheTtl,
+            @DefaultValue("8") int maxConcurrentRequests,
+            @DefaultValue("32") int queueCapacity,
+            @DefaultValue("2s") Duration timeout,
+            @DefaultValue("fail-open") FailurePolicy failurePolicy) {
+
+    }
+
+}
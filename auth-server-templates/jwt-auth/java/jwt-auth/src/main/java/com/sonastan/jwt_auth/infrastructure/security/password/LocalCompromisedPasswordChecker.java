@@ -0,0 +1,181 @@
+package com.sonastan.jwt_auth.infrastructure.security.password;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import org.springframework.security.authentication.password.CompromisedPasswordChecker;
+import org.springframework.security.authentication.password.CompromisedPasswordDecision;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Checks passwords against a local copy of the HaveIBeenPwned SHA-1 dataset
+ * (one {@code HASH[:COUNT]} per line, as written by the official downloader)
+ * or any subset of it.
+ * <p>
+ * On startup the dataset is converted into an index file of sorted 64 bit hash
+ * prefixes next to it, which is rebuilt when the dataset changes. The index is
+ * memory mapped and searched with a binary search, so the heap only holds the
+ * mapping and a lookup takes a few page reads. With 64 bit prefixes a false
+ * positive is practically impossible for the ~10^9 hashes of the full dataset.
+ * <p>
+ * Datasets that are not sorted by hash (e.g. hand picked subsets) are sorted
+ * in memory while the index is built; the full dataset is already sorted.
+ */
+@Slf4j
+public class LocalCompromisedPasswordChecker implements CompromisedPasswordChecker {
+
+    private static final int HASH_PREFIX_HEX_LENGTH = 16;
+
+    // longs per mapped segment, a single mapping is limited to 2 GB
+    private static final int SEGMENT_SIZE = 1 << 27;
+
+    private final LongBuffer[] segments;
+
+    private final long size;
+
+    public LocalCompromisedPasswordChecker(Path dataset, Path index) {
+        try {
+            if (Files.notExists(index) || Files.getLastModifiedTime(index)
+                    .compareTo(Files.getLastModifiedTime(dataset)) < 0) {
+                buildIndex(dataset, index);
+            }
+            try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+                this.size = channel.size() / Long.BYTES;
+                this.segments = map(channel, size);
+            }
+            log.info("Loaded {} compromised password hashes from {}", size, index);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load compromised password dataset " + dataset, e);
+        }
+    }
+
+    @Override
+    public CompromisedPasswordDecision check(String password) {
+        if (password == null) {
+            return new CompromisedPasswordDecision(false);
+        }
+        return new CompromisedPasswordDecision(contains(sortable(hashPrefix(password))));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    private boolean contains(long key) {
+        long low = 0;
+        long high = size - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long value = get(mid);
+            if (value < key) {
+                low = mid + 1;
+            } else if (value > key) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long get(long position) {
+        return segments[(int) (position / SEGMENT_SIZE)].get((int) (position % SEGMENT_SIZE));
+    }
+
+    private static LongBuffer[] map(FileChannel channel, long size) throws IOException {
+        int segmentCount = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+        LongBuffer[] segments = new LongBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long offset = (long) i * SEGMENT_SIZE;
+            long length = Math.min(SEGMENT_SIZE, size - offset);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset * Long.BYTES, length * Long.BYTES)
+                    .asLongBuffer();
+        }
+        return segments;
+    }
+
+    private static void buildIndex(Path dataset, Path index) throws IOException {
+        log.info("Building compromised password index {} from {}", index, dataset);
+        Path tmp = Files.createTempFile(index.toAbsolutePath().getParent(), index.getFileName().toString(), ".tmp");
+        long count = 0;
+        boolean sorted = true;
+        long previous = Long.MIN_VALUE;
+        try (BufferedReader reader = Files.newBufferedReader(dataset, StandardCharsets.US_ASCII);
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() < HASH_PREFIX_HEX_LENGTH || line.startsWith("#")) {
+                    continue;
+                }
+                long value = sortable(HexFormat.fromHexDigitsToLong(line, 0, HASH_PREFIX_HEX_LENGTH));
+                if (value == previous && count > 0) {
+                    continue;
+                }
+                sorted &= value > previous || count == 0;
+                previous = value;
+                out.writeLong(value);
+                count++;
+            }
+        }
+        if (!sorted) {
+            sortIndex(tmp, count);
+        }
+        Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Built compromised password index with {} hashes", count);
+    }
+
+    private static void sortIndex(Path index, long count) throws IOException {
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IOException("Dataset with " + count + " hashes must be sorted by hash");
+        }
+        long[] values = new long[(int) count];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index), 1 << 16))) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readLong();
+            }
+        }
+        Arrays.sort(values);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(index), 1 << 16))) {
+            for (int i = 0; i < values.length; i++) {
+                if (i == 0 || values[i] != values[i - 1]) {
+                    out.writeLong(values[i]);
+                }
+            }
+        }
+    }
+
+    private static long hashPrefix(String password) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    // flips the sign bit, so the signed order of the stored longs matches the hex order of the hashes
+    private static long sortable(long hashPrefix) {
+        return hashPrefix ^ Long.MIN_VALUE;
+    }
+
+}
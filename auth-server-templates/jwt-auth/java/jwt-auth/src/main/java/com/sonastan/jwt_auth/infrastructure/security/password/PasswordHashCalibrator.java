@@ -0,0 +1,103 @@
+package com.sonastan.jwt_auth.infrastructure.security.password;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.sonastan.jwt_auth.infrastructure.constants.PasswordHashAlgorithm;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the work factor of the hashing algorithm so that a single hash takes
+ * about the target duration on this host, and never less than the Spring
+ * Security defaults. BCrypt doubles its time per cost step, Argon2 grows
+ * linearly with the iterations at a fixed memory size, so one measurement at
+ * the minimum work factor is enough to extrapolate.
+ * <p>
+ * The resulting encoder still matches every format of
+ * {@link PasswordEncoderFactories#createDelegatingPasswordEncoder()}, and
+ * reports hashes of another algorithm or a lower work factor through
+ * {@link PasswordEncoder#upgradeEncoding(String)}.
+ */
+@Slf4j
+public final class PasswordHashCalibrator {
+
+    public static final String BCRYPT_ID = "bcrypt";
+
+    public static final String ARGON2_ID = "argon2@SpringSecurity_v5_8";
+
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+
+    private static final int MAX_BCRYPT_STRENGTH = 31;
+
+    private static final int MIN_ARGON2_ITERATIONS = 2;
+
+    private static final int MAX_ARGON2_ITERATIONS = 64;
+
+    private static final String SAMPLE_PASSWORD = "Calibration1234!";
+
+    private PasswordHashCalibrator() {
+    }
+
+    public static PasswordEncoder createPasswordEncoder(PasswordHashAlgorithm algorithm, Duration targetDuration) {
+        String idForEncode = switch (algorithm) {
+            case BCRYPT -> BCRYPT_ID;
+            case ARGON2 -> ARGON2_ID;
+        };
+        PasswordEncoder encoder = switch (algorithm) {
+            case BCRYPT -> bcrypt(calibrate(PasswordHashCalibrator::bcrypt, MIN_BCRYPT_STRENGTH,
+                    MAX_BCRYPT_STRENGTH, targetDuration, true));
+            case ARGON2 -> argon2(calibrate(PasswordHashCalibrator::argon2, MIN_ARGON2_ITERATIONS,
+                    MAX_ARGON2_ITERATIONS, targetDuration, false));
+        };
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(idForEncode,
+                Map.of(idForEncode, encoder));
+        delegatingPasswordEncoder
+                .setDefaultPasswordEncoderForMatches(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        return delegatingPasswordEncoder;
+    }
+
+    private static int calibrate(IntFunction<PasswordEncoder> encoderFactory, int minimum, int maximum,
+            Duration targetDuration, boolean exponential) {
+        if (targetDuration.isZero() || targetDuration.isNegative()) {
+            return minimum;
+        }
+        long nanos = measure(encoderFactory.apply(minimum));
+        double factor = (double) targetDuration.toNanos() / nanos;
+        int workFactor = exponential
+                ? minimum + (int) Math.floor(Math.log(factor) / Math.log(2))
+                : (int) Math.floor(minimum * factor);
+        workFactor = Math.max(minimum, Math.min(maximum, workFactor));
+        log.info("One hash with work factor {} took {} ms, using a work factor of {}", minimum, nanos / 1_000_000,
+                workFactor);
+        return workFactor;
+    }
+
+    private static long measure(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+
+    private static PasswordEncoder bcrypt(int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    // the Spring Security 5.8 defaults with a configurable number of iterations
+    private static PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(16, 32, 1, 1 << 14, iterations);
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.sonastan.jwt_auth.infrastructure.security.password;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import com.sonastan.jwt_auth.infrastructure.constants.PasswordHashAlgorithm;
+
+@ConfigurationProperties(prefix = "password-hashing")
+public record PasswordHashingProperties(@DefaultValue("0") int threads,
+        @DefaultValue("64") int queueCapacity,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue("bcrypt") PasswordHashAlgorithm algorithm,
+        @DefaultValue("100ms") Duration targetDuration,
+        @DefaultValue("1000") int upgradeQueueCapacity,
+        @DefaultValue("1s") Duration upgradeFlushInterval) {
+
+    public int threadsOrDefault() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.sonastan.jwt_auth.infrastructure.security.password;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.password.CompromisedPasswordChecker;
+import org.springframework.security.authentication.password.CompromisedPasswordDecision;
+import org.springframework.web.client.RestClient;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sonastan.jwt_auth.infrastructure.constants.FailurePolicy;
+import com.sonastan.jwt_auth.infrastructure.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HaveIBeenPwned k-anonymity range client that caches the hash suffixes of
+ * every fetched 5 character SHA-1 prefix. Concurrent checks of the same prefix
+ * share one request.
+ * <p>
+ * Requests run on a bounded pool (the bulkhead), so a slow API can neither
+ * hold more than {@code maxConcurrentRequests} connections nor block the
+ * calling request thread longer than {@code timeout}. When the API does not
+ * answer in time, the pool is full or the request fails, the
+ * {@link FailurePolicy} decides whether the password is accepted
+ * ({@code FAIL_OPEN}) or the registration is rejected with a 503
+ * ({@code FAIL_CLOSED}).
+ * <p>
+ * The pool threads come from the given factory, so the requests run on
+ * virtual threads when those are enabled. The pool size still bounds the
+ * number of concurrent requests.
+ */
+@Slf4j
+public class RangeCachingCompromisedPasswordChecker implements CompromisedPasswordChecker, AutoCloseable {
+
+    public static final String CACHE_NAME = "hibp.range";
+
+    private static final int PREFIX_LENGTH = 5;
+
+    private final Function<String, String> rangeClient;
+
+    private final CompromisedPasswordProperties.Remote properties;
+
+    private final ExecutorService bulkhead;
+
+    private final AsyncCache<String, Set<String>> ranges;
+
+    private final MeterRegistry meterRegistry;
+
+    public RangeCachingCompromisedPasswordChecker(CompromisedPasswordProperties.Remote properties,
+            ThreadFactory threadFactory, MeterRegistry meterRegistry) {
+        this(restClientRangeClient(properties), properties, threadFactory, meterRegistry);
+    }
+
+    RangeCachingCompromisedPasswordChecker(Function<String, String> rangeClient,
+            CompromisedPasswordProperties.Remote properties, MeterRegistry meterRegistry) {
+        this(rangeClient, properties, new CustomizableThreadFactory("hibp-"), meterRegistry);
+    }
+
+    RangeCachingCompromisedPasswordChecker(Function<String, String> rangeClient,
+            CompromisedPasswordProperties.Remote properties, ThreadFactory threadFactory,
+            MeterRegistry meterRegistry) {
+        this.rangeClient = rangeClient;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(properties.maxConcurrentRequests(),
+                properties.maxConcurrentRequests(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()), threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        this.bulkhead = ExecutorServiceMetrics.monitor(meterRegistry, executor, "hibp");
+        this.ranges = Caffeine.newBuilder()
+                .maximumSize(properties.cacheSize())
+                .expireAfterWrite(properties.cacheTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, ranges, CACHE_NAME);
+    }
+
+    @Override
+    public CompromisedPasswordDecision check(String password) {
+        if (password == null) {
+            return new CompromisedPasswordDecision(false);
+        }
+        String hash = sha1(password);
+        String prefix = hash.substring(0, PREFIX_LENGTH);
+        String suffix = hash.substring(PREFIX_LENGTH);
+        try {
+            Set<String> suffixes = ranges
+                    .get(prefix, (key, executor) -> CompletableFuture.supplyAsync(() -> fetch(key), bulkhead))
+                    .get(properties.timeout().toMillis(), TimeUnit.MILLISECONDS);
+            return new CompromisedPasswordDecision(suffixes.contains(suffix));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return onFailure(prefix, "interrupted", e);
+        } catch (TimeoutException e) {
+            return onFailure(prefix, "timeout", e);
+        } catch (RejectedExecutionException e) {
+            return onFailure(prefix, "rejected", e);
+        } catch (ExecutionException e) {
+            return onFailure(prefix, "error", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        bulkhead.shutdownNow();
+    }
+
+    private Set<String> fetch(String prefix) {
+        String body = rangeClient.apply(prefix);
+        Set<String> suffixes = new HashSet<>();
+        if (body != null) {
+            for (String line : body.split("\r?\n")) {
+                int separator = line.indexOf(':');
+                // padding entries have a count of 0
+                if (separator > 0 && !line.substring(separator + 1).trim().equals("0")) {
+                    suffixes.add(line.substring(0, separator).trim());
+                }
+            }
+        }
+        return suffixes;
+    }
+
+    private CompromisedPasswordDecision onFailure(String prefix, String reason, Throwable cause) {
+        meterRegistry.counter("hibp.failures", "reason", reason, "policy", properties.failurePolicy().name())
+                .increment();
+        if (properties.failurePolicy() == FailurePolicy.FAIL_OPEN) {
+            log.warn("Compromised password check for range {} failed ({}), accepting the password", prefix, reason,
+                    cause);
+            return new CompromisedPasswordDecision(false);
+        }
+        log.error("Compromised password check for range {} failed ({})", prefix, reason, cause);
+        throw new ServiceUnavailableException("Password could not be checked, please try again later",
+                properties.timeout());
+    }
+
+    private static Function<String, String> restClientRangeClient(CompromisedPasswordProperties.Remote properties) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.timeout());
+        requestFactory.setReadTimeout(properties.timeout());
+        RestClient restClient = RestClient.builder()
+                .baseUrl(properties.apiUrl().toString())
+                .requestFactory(requestFactory)
+                .defaultHeader("Add-Padding", "true")
+                .build();
+        return prefix -> restClient.get().uri("{prefix}", prefix).retrieve().body(String.class);
+    }
+
+    private static String sha1(String password) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().withUpperCase().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.sonastan.jwt_auth.infrastructure.security.user;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link DaoAuthenticationProvider} that rehashes outdated passwords after the
+ * login response instead of before it. The new hash is computed on a single
+ * background thread, so upgrades never take more than one hashing thread, and
+ * handed to the {@link UserDetailsPasswordService}. Upgrades are dropped when
+ * the backlog is full, the next login of the user tries again.
+ */
+@Slf4j
+public class UpgradingDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final UserDetailsPasswordService userDetailsPasswordService;
+
+    private final ThreadPoolExecutor upgradeExecutor;
+
+    public UpgradingDaoAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+            UserDetailsPasswordService userDetailsPasswordService, int upgradeQueueCapacity) {
+        super(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-upgrade-");
+        threadFactory.setDaemon(true);
+        this.upgradeExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(upgradeQueueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+            UserDetails user) {
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            scheduleUpgrade(user, authentication.getCredentials().toString());
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+
+    private void scheduleUpgrade(UserDetails user, String presentedPassword) {
+        try {
+            upgradeExecutor.execute(() -> {
+                try {
+                    userDetailsPasswordService.updatePassword(user, passwordEncoder.encode(presentedPassword));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to upgrade the password hash of user: {}", user.getUsername(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Password upgrade backlog is full, skipping user: {}", user.getUsername());
+        }
+    }
+
+}
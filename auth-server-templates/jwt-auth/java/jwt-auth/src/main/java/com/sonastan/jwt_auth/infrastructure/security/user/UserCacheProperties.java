@@ -0,0 +1,12 @@
+package com.sonastan.jwt_auth.infrastructure.security.user;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "user-cache")
+public record UserCacheProperties(@DefaultValue("10000") long maximumSize,
+        @DefaultValue("1m") Duration expireAfterWrite) {
+
+}
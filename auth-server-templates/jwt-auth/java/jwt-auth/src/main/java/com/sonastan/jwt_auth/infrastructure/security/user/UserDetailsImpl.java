@@ -2,6 +2,7 @@ package com.sonastan.jwt_auth.infrastructure.security.user;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -9,6 +10,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.model.UserDetailsView;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -21,7 +23,7 @@ public class UserDetailsImpl implements UserDetails {
 
     private Long userId;
 
-    private String userUuid;
+    private UUID userUuid;
 
     private String username;
 
@@ -42,6 +44,8 @@ public class UserDetailsImpl implements UserDetails {
 
     private boolean isAccountNonExpired;
 
+    private long securityVersion;
+
     private Collection<? extends GrantedAuthority> authorities;
 
     public static UserDetails build(User user) {
@@ -50,6 +54,17 @@ public class UserDetailsImpl implements UserDetails {
                 .of(new SimpleGrantedAuthority(user.getRole().getRolename().name()));
         return new UserDetailsImpl(user.getUserId(), user.getUserUuid(), user.getUsername(), user.getEmail(),
                 user.getPassword(), user.getFirstname(), user.getLastname(), user.isEnabled(),
-                user.isCredentialsNonExpired(), user.isAccountNonLocked(), user.isAccountNonExpired(), authorities);
+                user.isCredentialsNonExpired(), user.isAccountNonLocked(), user.isAccountNonExpired(), user.getSecurityVersion(),
+                authorities);
+    }
+
+    public static UserDetails build(UserDetailsView user) {
+        log.debug("Building UserDetails for user: {}", user.getUsername());
+        Collection<? extends GrantedAuthority> authorities = List
+                .of(new SimpleGrantedAuthority(user.getRolename().name()));
+        return new UserDetailsImpl(user.getUserId(), user.getUserUuid(), user.getUsername(), user.getEmail(),
+                user.getPassword(), user.getFirstname(), user.getLastname(), user.isEnabled(),
+                user.isCredentialsNonExpired(), user.isAccountNonLocked(), user.isAccountNonExpired(),
+                user.getSecurityVersion(), authorities);
     }
 }
@@ -1,26 +1,66 @@
 package com.sonastan.jwt_auth.infrastructure.security.user;
 
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.sonastan.jwt_auth.application.service.UserService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Upgraded password hashes are collected and written in one transaction per
+ * flush instead of one write per login.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserService userService;
 
+    private final Map<UUID, PasswordUpgrade> pendingUpgrades = new ConcurrentHashMap<>();
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         log.debug("Loading user by username: {}", username);
         return userService.loadUserByUsername(username);
     }
 
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) user;
+        // a later upgrade of the same user replaces the pending one, the old hash stays the one in the database
+        pendingUpgrades.merge(userDetails.getUserUuid(), new PasswordUpgrade(userDetails.getPassword(), newPassword),
+                (pending, upgrade) -> new PasswordUpgrade(pending.oldPassword(), upgrade.newPassword()));
+        return user;
+    }
+
+    @Scheduled(fixedDelayString = "${password-hashing.upgrade-flush-interval:1s}")
+    @Transactional
+    public void flushPasswordUpgrades() {
+        int updated = 0;
+        for (UUID userUuid : pendingUpgrades.keySet()) {
+            PasswordUpgrade upgrade = pendingUpgrades.remove(userUuid);
+            if (upgrade != null && userService.updatePassword(userUuid, upgrade.oldPassword(), upgrade.newPassword())) {
+                updated++;
+            }
+        }
+        if (updated > 0) {
+            log.info("Upgraded the password hashes of {} users", updated);
+        }
+    }
+
+    private record PasswordUpgrade(String oldPassword, String newPassword) {
+    }
+
 }
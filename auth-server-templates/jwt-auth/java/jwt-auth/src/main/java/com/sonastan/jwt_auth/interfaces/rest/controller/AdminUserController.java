@@ -0,0 +1,233 @@
+package com.sonastan.jwt_auth.interfaces.rest.controller;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.function.ThrowingConsumer;
+import org.springframework.util.function.ThrowingFunction;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonastan.jwt_auth.application.mapper.UserTransferMapper;
+import com.sonastan.jwt_auth.application.service.UserExportService;
+import com.sonastan.jwt_auth.application.service.UserImportService;
+import com.sonastan.jwt_auth.application.service.UserService;
+import com.sonastan.jwt_auth.domain.model.MigratedUser;
+import com.sonastan.jwt_auth.domain.model.UserImportResult;
+import com.sonastan.jwt_auth.infrastructure.persistence.UserImportProperties;
+import com.sonastan.jwt_auth.interfaces.rest.dto.user.ChangeRoleDto;
+import com.sonastan.jwt_auth.interfaces.rest.dto.user.UserImportResponseDto;
+import com.sonastan.jwt_auth.interfaces.rest.dto.user.UserTransferDto;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves users in and out of the service with their password hashes. Both
+ * directions stream: an import reads the body one chunk of lines at a time and
+ * validates a chunk on all cores before it is inserted, an export writes the
+ * users while they are read from a database cursor. Administrators also
+ * change the roles of users here.
+ */
+@RestController
+@RequestMapping("/v1/admin/users")
+@Slf4j
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('SCOPE_ROLE_ADMIN')")
+@Tag(name = "User Administration", description = "User migration and role endpoints for administrators")
+public class AdminUserController {
+
+        public static final String TEXT_CSV_VALUE = "text/csv";
+
+        private final UserImportService userImportService;
+
+        private final UserExportService userExportService;
+
+        private final UserService userService;
+
+        private final UserImportProperties importProperties;
+
+        private final ObjectMapper objectMapper;
+
+        private final Validator validator;
+
+        @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+        @Operation(summary = "Import users from NDJSON", description = "Imports one user per line with a pre-hashed password, e.g. {bcrypt}$2a$10$...", security = @SecurityRequirement(name = "jwt"))
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Number of imported and rejected users", content = @Content(schema = @Schema(implementation = UserImportResponseDto.class))),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+                        @ApiResponse(responseCode = "403", description = "Not an administrator", content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        })
+        public ResponseEntity<UserImportResponseDto> importNdjson(InputStream body) throws Exception {
+                return ResponseEntity.ok(importUsers(body,
+                                line -> objectMapper.readValue(line, UserTransferDto.class)));
+        }
+
+        @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+        @Operation(summary = "Import users from CSV", description = "Imports one user per line with a pre-hashed password. The header line "
+                        + UserTransferMapper.CSV_HEADER + " is optional.", security = @SecurityRequirement(name = "jwt"))
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Number of imported and rejected users", content = @Content(schema = @Schema(implementation = UserImportResponseDto.class))),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+                        @ApiResponse(responseCode = "403", description = "Not an administrator", content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        })
+        public ResponseEntity<UserImportResponseDto> importCsv(InputStream body) throws Exception {
+                return ResponseEntity.ok(importUsers(body, UserTransferMapper::mapCsvLineToUserTransferDto));
+        }
+
+        @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+        @Operation(summary = "Export users as NDJSON", description = "Streams all users with their password hashes, one per line.", security = @SecurityRequirement(name = "jwt"))
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "All users", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+                        @ApiResponse(responseCode = "403", description = "Not an administrator", content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        })
+        public ResponseEntity<StreamingResponseBody> exportNdjson() {
+                return exportUsers(MediaType.APPLICATION_NDJSON, null, objectMapper::writeValueAsString);
+        }
+
+        @GetMapping(value = "/export", produces = TEXT_CSV_VALUE)
+        @Operation(summary = "Export users as CSV", description = "Streams all users with their password hashes, one per line after the header.", security = @SecurityRequirement(name = "jwt"))
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "All users", content = @Content(mediaType = TEXT_CSV_VALUE)),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+                        @ApiResponse(responseCode = "403", description = "Not an administrator", content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        })
+        public ResponseEntity<StreamingResponseBody> exportCsv() {
+                return exportUsers(MediaType.parseMediaType(TEXT_CSV_VALUE), UserTransferMapper.CSV_HEADER,
+                                UserTransferMapper::mapUserTransferDtoToCsvLine);
+        }
+
+        @PutMapping("/{userUuid}/role")
+        @Operation(summary = "Change role of a user", description = "Changes the role of a user. Refresh tokens issued before are revoked.", security = @SecurityRequirement(name = "jwt"))
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "204", description = "Role changed successfully", content = @Content),
+                        @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+                        @ApiResponse(responseCode = "403", description = "Not an administrator", content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+                        @ApiResponse(responseCode = "404", description = "User not found", content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        })
+        public ResponseEntity<Void> changeRole(@PathVariable UUID userUuid,
+                        @RequestBody @Valid ChangeRoleDto changeRoleDto) {
+                userService.changeRole(userUuid, changeRoleDto.role());
+                return ResponseEntity.noContent().build();
+        }
+
+        private UserImportResponseDto importUsers(InputStream body, ThrowingFunction<String, UserTransferDto> parser)
+                        throws Exception {
+                LongAdder invalid = new LongAdder();
+                try (BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                        Iterator<String> lines = reader.lines()
+                                        .filter(line -> !line.isBlank())
+                                        .filter(line -> !UserTransferMapper.isCsvHeader(line))
+                                        .iterator();
+                        UserImportResult result = userImportService
+                                        .importUsers(validatedUsers(lines, parser, invalid));
+                        log.info("Import finished, {} users imported, {} rejected by the database, {} invalid",
+                                        result.imported(), result.rejected(), invalid.sum());
+                        return new UserImportResponseDto(result.imported(), result.rejected() + invalid.sum());
+                }
+        }
+
+        // only one chunk of lines is held at a time, its users are parsed and validated in parallel
+        private Stream<MigratedUser> validatedUsers(Iterator<String> lines,
+                        ThrowingFunction<String, UserTransferDto> parser, LongAdder invalid) {
+                Iterator<List<MigratedUser>> chunks = new Iterator<>() {
+
+                        @Override
+                        public boolean hasNext() {
+                                return lines.hasNext();
+                        }
+
+                        @Override
+                        public List<MigratedUser> next() {
+                                List<String> chunk = new ArrayList<>(importProperties.chunkSize());
+                                while (chunk.size() < importProperties.chunkSize() && lines.hasNext()) {
+                                        chunk.add(lines.next());
+                                }
+                                return chunk.parallelStream()
+                                                .map(line -> validate(line, parser, invalid))
+                                                .filter(Objects::nonNull)
+                                                .toList();
+                        }
+                };
+                return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED), false)
+                                .flatMap(List::stream);
+        }
+
+        private MigratedUser validate(String line, ThrowingFunction<String, UserTransferDto> parser,
+                        LongAdder invalid) {
+                try {
+                        UserTransferDto userTransferDto = Objects.requireNonNull(parser.applyWithException(line));
+                        Set<ConstraintViolation<UserTransferDto>> violations = validator.validate(userTransferDto);
+                        if (violations.isEmpty()) {
+                                return UserTransferMapper.mapUserTransferDtoToMigratedUser(userTransferDto);
+                        }
+                        log.warn("Rejected invalid user '{}': {}", userTransferDto.username(), violations.stream()
+                                        .map(ConstraintViolation::getMessage)
+                                        .collect(Collectors.joining(", ")));
+                } catch (Exception e) {
+                        log.warn("Rejected unreadable line: {}", e.getMessage());
+                }
+                invalid.increment();
+                return null;
+        }
+
+        private ResponseEntity<StreamingResponseBody> exportUsers(MediaType mediaType, String header,
+                        ThrowingFunction<UserTransferDto, String> formatter) {
+                StreamingResponseBody body = outputStream -> {
+                        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                        if (header != null) {
+                                writer.write(header);
+                                writer.write('\n');
+                        }
+                        userExportService.exportUsers((ThrowingConsumer<MigratedUser>) migratedUser -> {
+                                writer.write(formatter.applyWithException(
+                                                UserTransferMapper.mapMigratedUserToUserTransferDto(migratedUser)));
+                                writer.write('\n');
+                        });
+                        writer.flush();
+                };
+                return ResponseEntity.ok().contentType(mediaType).body(body);
+        }
+
+}
@@ -4,9 +4,11 @@ import java.net.URI;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.oauth2.jwt.JwtException;
@@ -17,6 +19,9 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import com.sonastan.jwt_auth.infrastructure.exception.IllegalModelArgumentException;
 import com.sonastan.jwt_auth.infrastructure.exception.NotFoundException;
+import com.sonastan.jwt_auth.infrastructure.exception.RetryLaterException;
+import com.sonastan.jwt_auth.infrastructure.exception.ServiceUnavailableException;
+import com.sonastan.jwt_auth.infrastructure.exception.TooManyRequestsException;
 
 @RestControllerAdvice
 public class ApiControllerAdvice {
@@ -61,6 +66,11 @@ public class ApiControllerAdvice {
         return createProblemDetail("Bad Credentials", HttpStatus.BAD_REQUEST, ex);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<ProblemDetail> handleAccessDeniedException(AccessDeniedException ex) {
+        return createProblemDetail("Forbidden", HttpStatus.FORBIDDEN, ex);
+    }
+
     @ExceptionHandler
     public ResponseEntity<ProblemDetail> handleIllegalModelArgumentException(IllegalModelArgumentException ex) {
         return createProblemDetail("Invalid Model Argument", HttpStatus.BAD_REQUEST, ex);
@@ -76,4 +86,21 @@ public class ApiControllerAdvice {
         return createProblemDetail("Not Found", HttpStatus.NOT_FOUND, ex);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<ProblemDetail> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        return createRetryLaterProblemDetail("Service Unavailable", HttpStatus.SERVICE_UNAVAILABLE, ex);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ProblemDetail> handleTooManyRequestsException(TooManyRequestsException ex) {
+        return createRetryLaterProblemDetail("Too Many Requests", HttpStatus.TOO_MANY_REQUESTS, ex);
+    }
+
+    private ResponseEntity<ProblemDetail> createRetryLaterProblemDetail(String title, HttpStatus status,
+            RetryLaterException ex) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(createProblemDetail(title, status, ex).getBody());
+    }
+
 }
@@ -15,7 +15,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.sonastan.jwt_auth.application.service.JwtService;
+import com.sonastan.jwt_auth.application.service.UserActivityService;
 import com.sonastan.jwt_auth.infrastructure.constants.JwtType;
+import com.sonastan.jwt_auth.infrastructure.security.login.LoginThrottle;
 import com.sonastan.jwt_auth.infrastructure.security.user.UserDetailsImpl;
 import com.sonastan.jwt_auth.interfaces.rest.dto.auth.LoginRequestDto;
 import com.sonastan.jwt_auth.interfaces.rest.dto.auth.LoginResponseDto;
@@ -27,6 +29,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -40,19 +43,27 @@ public class AuthController {
 
         private final AuthenticationManager authenticationManager;
         private final JwtService jwtService;
+        private final LoginThrottle loginThrottle;
+        private final UserActivityService userActivityService;
 
         @Operation(summary = "Authenticate user and return JWT tokens", description = "Authenticates a user with username and password and returns JWT access and refresh tokens.", responses = {
                         @ApiResponse(responseCode = "200", description = "Login successful. Returns JWT access and refresh tokens.", content = @Content(schema = @Schema(implementation = LoginResponseDto.class, title = "LoginResponseDto", description = "Response containing JWT access and refresh tokens."))),
                         @ApiResponse(responseCode = "400", description = "Invalid request. The request body is malformed or missing required fields.", content = @Content(schema = @Schema(implementation = ProblemDetail.class, title = "ProblemDetail", description = "Details about the validation or request error."))),
                         @ApiResponse(responseCode = "401", description = "Unauthorized. The credentials are invalid.", content = @Content(schema = @Schema(title = "Empty", description = "No content returned for unauthorized requests."))),
+                        @ApiResponse(responseCode = "429", description = "Too many login attempts from this address or for this username. Retry after the time given in the Retry-After header.", content = @Content(schema = @Schema(implementation = ProblemDetail.class, title = "ProblemDetail", description = "Details about the throttled login."))),
         })
         @PostMapping("/login")
-        public ResponseEntity<LoginResponseDto> login(@RequestBody @Valid LoginRequestDto loginRequestDto) {
+        public ResponseEntity<LoginResponseDto> login(@RequestBody @Valid LoginRequestDto loginRequestDto,
+                        HttpServletRequest request) {
+                // rejects before the password is hashed
+                loginThrottle.check(loginRequestDto.username(), request.getRemoteAddr());
                 Authentication authReq = UsernamePasswordAuthenticationToken.unauthenticated(loginRequestDto.username(),
                                 loginRequestDto.password());
                 Authentication auth = authenticationManager.authenticate(authReq);
                 log.info("User {} logged in successfully", auth.getName());
                 UserDetailsImpl userDetails = (UserDetailsImpl) auth.getPrincipal();
+                // written behind, so the login itself runs no update
+                userActivityService.recordLogin(userDetails.getUserUuid());
                 Jwt accessToken = jwtService.generateAccessToken(userDetails);
                 Jwt refreshToken = jwtService.generateRefreshToken(userDetails);
                 return ResponseEntity
@@ -60,18 +71,22 @@ public class AuthController {
         }
 
         @Operation(summary = "Refresh access token using a valid refresh token", description = "Refreshes the JWT access token using a valid refresh token. Requires a valid refresh token.", responses = {
-                        @ApiResponse(responseCode = "200", description = "Token refreshed. Returns a new JWT access token.", content = @Content(schema = @Schema(implementation = RefreshResponseDto.class, title = "RefreshResponseDto", description = "Response containing the new JWT access token."))),
-                        @ApiResponse(responseCode = "401", description = "Unauthorized. The refresh token is missing or invalid.", content = @Content(schema = @Schema(title = "Empty", description = "No content returned for unauthorized requests."))),
+                        @ApiResponse(responseCode = "200", description = "Token refreshed. Returns a new JWT access token and a new refresh token, the used refresh token is revoked.", content = @Content(schema = @Schema(implementation = RefreshResponseDto.class, title = "RefreshResponseDto", description = "Response containing the new JWT access and refresh tokens."))),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized. The refresh token is missing, invalid or has already been used.", content = @Content(schema = @Schema(title = "Empty", description = "No content returned for unauthorized requests."))),
                         @ApiResponse(responseCode = "404", description = "User not found.", content = @Content(schema = @Schema(implementation = ProblemDetail.class, title = "ProblemDetail", description = "Details about the user not found error."))),
         }, security = {
                         @SecurityRequirement(name = "jwt"),
         })
         @PostMapping("/refresh")
         public ResponseEntity<RefreshResponseDto> refresh(@AuthenticationPrincipal Jwt jwt) {
-                Jwt validatedJwt = jwtService.validateToken(jwt.getTokenValue(), JwtType.REFRESH);
+                Jwt validatedJwt = jwtService.validateToken(jwt, JwtType.REFRESH);
                 log.info("Refresh token validated for user: {}", validatedJwt.getSubject());
+                // the used token is only revoked once the access token was issued, so a refresh that fails
+                // (user not found, outdated version) leaves it usable
                 Jwt accessToken = jwtService.refreshAccessToken(validatedJwt);
-                return ResponseEntity.ok(new RefreshResponseDto(accessToken.getTokenValue()));
+                Jwt refreshToken = jwtService.rotateRefreshToken(validatedJwt);
+                return ResponseEntity
+                                .ok(new RefreshResponseDto(accessToken.getTokenValue(), refreshToken.getTokenValue()));
         }
 
         @Operation(summary = "Get CSRF token", description = "Returns the CSRF token for the current session. Useful for clients to include in subsequent requests.", responses = {
@@ -16,6 +16,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.sonastan.jwt_auth.application.mapper.UserMapper;
 import com.sonastan.jwt_auth.application.service.UserService;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtSubjects;
+import com.sonastan.jwt_auth.interfaces.rest.dto.user.ChangePasswordDto;
 import com.sonastan.jwt_auth.interfaces.rest.dto.user.CreateUserDto;
 import com.sonastan.jwt_auth.interfaces.rest.dto.user.UpdateUserDto;
 import com.sonastan.jwt_auth.interfaces.rest.dto.user.UserResponseDto;
@@ -48,7 +50,7 @@ public class UserController {
                         @ApiResponse(responseCode = "404", description = "User not found", content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
         })
         public ResponseEntity<UserResponseDto> getCurrentUser(@AuthenticationPrincipal Jwt jwt) {
-                UserDetails userDetails = userService.loadUserByUuid(jwt.getSubject());
+                UserDetails userDetails = userService.loadUserByUuid(JwtSubjects.userUuid(jwt));
                 return ResponseEntity.ok(UserMapper.mapUserDetailsToUserResponseDto(userDetails));
         }
 
@@ -82,7 +84,7 @@ public class UserController {
         public ResponseEntity<UserResponseDto> updateUser(@AuthenticationPrincipal Jwt jwt,
                         @RequestBody @Valid UpdateUserDto updateUserDto) {
                 log.debug("Updating user");
-                UserDetails userDetails = userService.updateUser(jwt.getSubject(),
+                UserDetails userDetails = userService.updateUser(JwtSubjects.userUuid(jwt),
                                 updateUserDto.username(),
                                 updateUserDto.email(),
                                 updateUserDto.firstname(),
@@ -90,6 +92,24 @@ public class UserController {
                 return ResponseEntity.ok(UserMapper.mapUserDetailsToUserResponseDto(userDetails));
         }
 
+        @PutMapping("/password")
+        @Operation(summary = "Change password of current user", description = "Changes the password of the currently authenticated user. Refresh tokens issued before are revoked.", security = @SecurityRequirement(name = "jwt"))
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "204", description = "Password changed successfully", content = @Content),
+                        @ApiResponse(responseCode = "400", description = "Invalid input data or wrong old password", content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+                        @ApiResponse(responseCode = "404", description = "User not found", content = @Content(schema = @Schema(implementation = ProblemDetail.class))),
+        })
+        public ResponseEntity<Void> changePassword(@AuthenticationPrincipal Jwt jwt,
+                        @RequestBody @Valid ChangePasswordDto changePasswordDto) {
+                log.debug("Changing password");
+                userService.changePassword(JwtSubjects.userUuid(jwt),
+                                changePasswordDto.oldPassword(),
+                                changePasswordDto.password(),
+                                changePasswordDto.rePassword());
+                return ResponseEntity.noContent().build();
+        }
+
         @DeleteMapping
         @Operation(summary = "Delete current user", description = "Deletes the currently authenticated user.", security = @SecurityRequirement(name = "jwt"))
         @ApiResponses(value = {
@@ -99,7 +119,7 @@ public class UserController {
         })
         public ResponseEntity<Void> deleteCurrentUser(@AuthenticationPrincipal Jwt jwt) {
                 log.debug("Deleting user");
-                userService.deleteUser(jwt.getSubject());
+                userService.deleteUser(JwtSubjects.userUuid(jwt));
                 return ResponseEntity.noContent().build();
         }
 
@@ -1,4 +1,4 @@
 package com.sonastan.jwt_auth.interfaces.rest.dto.auth;
 
-public record RefreshResponseDto(String accessToken) {
+public record RefreshResponseDto(String accessToken, String refreshToken) {
 }
@@ -0,0 +1,13 @@
+package com.sonastan.jwt_auth.interfaces.rest.dto.user;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+public record ChangePasswordDto(
+        @NotBlank(message = "Old password is required") String oldPassword,
+
+        @NotBlank(message = "Password is required") @Pattern(regexp = "^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d)(?=.*[^a-zA-Z0-9]).{8,}$", message = "Password must be at least 8 characters long and contain upper and lower case letters, a number, and a special character") String password,
+
+        @NotBlank(message = "RePassword is required") @Pattern(regexp = "^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d)(?=.*[^a-zA-Z0-9]).{8,}$", message = "RePassword must be at least 8 characters long and contain upper and lower case letters, a number, and a special character") String rePassword) {
+
+}
@@ -0,0 +1,10 @@
+package com.sonastan.jwt_auth.interfaces.rest.dto.user;
+
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+
+import jakarta.validation.constraints.NotNull;
+
+public record ChangeRoleDto(
+        @NotNull(message = "Role is required") UserRole role) {
+
+}
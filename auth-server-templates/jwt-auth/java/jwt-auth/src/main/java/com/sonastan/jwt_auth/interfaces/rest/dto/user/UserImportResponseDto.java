@@ -0,0 +1,5 @@
+package com.sonastan.jwt_auth.interfaces.rest.dto.user;
+
+public record UserImportResponseDto(long imported, long rejected) {
+
+}
@@ -0,0 +1,26 @@
+package com.sonastan.jwt_auth.interfaces.rest.dto.user;
+
+import java.util.UUID;
+
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+public record UserTransferDto(
+                @NotBlank(message = "Username is required") @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters") String username,
+
+                @NotBlank(message = "Email is required") @Email(message = "Email should be valid") String email,
+
+                @NotBlank(message = "Password is required") @Pattern(regexp = "^\\{(bcrypt|argon2|pbkdf2|scrypt)(@SpringSecurity_v5_8)?\\}.+$", message = "Password must be a bcrypt, argon2, pbkdf2 or scrypt hash prefixed with its encoder id, e.g. {bcrypt}") String password,
+
+                @NotBlank(message = "Firstname is required") @Size(min = 2, max = 50, message = "Firstname must be between 2 and 50 characters") String firstname,
+
+                @NotBlank(message = "Lastname is required") @Size(min = 2, max = 50, message = "Lastname must be between 2 and 50 characters") String lastname,
+
+                UserRole role,
+
+                UUID userUuid) {
+}
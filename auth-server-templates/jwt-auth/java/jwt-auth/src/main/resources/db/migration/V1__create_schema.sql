@@ -0,0 +1,74 @@
+-- Runs on PostgreSQL and H2. Every constraint is named, the users_* names are
+-- matched by UserServiceImpl to report duplicate usernames and emails.
+
+create sequence roles_seq start with 1 increment by 50;
+
+create sequence users_seq start with 1 increment by 50;
+
+create sequence revoked_tokens_seq start with 1 increment by 50;
+
+create table roles (
+    role_id integer not null,
+    role_uuid varchar(255) not null,
+    rolename varchar(255) not null,
+    created_by varchar(255),
+    updated_by varchar(255),
+    created_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    constraint pk_roles primary key (role_id),
+    constraint uk_roles_role_uuid unique (role_uuid),
+    constraint uk_roles_rolename unique (rolename),
+    constraint ck_roles_rolename check (rolename in ('ROLE_USER', 'ROLE_ADMIN'))
+);
+
+create table users (
+    user_id bigint not null,
+    user_uuid varchar(255) not null,
+    username varchar(255) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    is_enabled boolean not null,
+    is_credentials_non_expired boolean not null,
+    is_account_non_locked boolean not null,
+    is_account_non_expired boolean not null,
+    security_version bigint default 0 not null,
+    role_fk integer not null,
+    created_by varchar(255),
+    updated_by varchar(255),
+    created_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    constraint pk_users primary key (user_id),
+    -- the unique indexes serve the lookups by uuid (token subject), username (login) and email
+    constraint uk_users_user_uuid unique (user_uuid),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email),
+    constraint fk_users_role foreign key (role_fk) references roles (role_id)
+);
+
+create index idx_users_role_fk on users (role_fk);
+
+create table profiles (
+    -- shares the key of its user, the primary key is the index for the user lookup
+    user_fk bigint not null,
+    profile_uuid varchar(255) not null,
+    created_by varchar(255),
+    updated_by varchar(255),
+    created_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    constraint pk_profiles primary key (user_fk),
+    constraint uk_profiles_profile_uuid unique (profile_uuid),
+    constraint fk_profiles_user foreign key (user_fk) references users (user_id) on delete cascade
+);
+
+create table revoked_tokens (
+    revoked_token_id bigint not null,
+    jti varchar(255) not null,
+    user_uuid varchar(255) not null,
+    expires_at timestamp(6) with time zone not null,
+    constraint pk_revoked_tokens primary key (revoked_token_id),
+    constraint uk_revoked_tokens_jti unique (jti)
+);
+
+create index idx_revoked_tokens_expires_at on revoked_tokens (expires_at);
@@ -0,0 +1,8 @@
+-- Stores the public identifiers as 16 byte uuid values instead of 36 character strings. The unique
+-- constraints are kept and their indexes rebuilt with the new type. Runs on PostgreSQL and H2.
+
+alter table users alter column user_uuid type uuid using cast(user_uuid as uuid);
+
+alter table profiles alter column profile_uuid type uuid using cast(profile_uuid as uuid);
+
+alter table roles alter column role_uuid type uuid using cast(role_uuid as uuid);
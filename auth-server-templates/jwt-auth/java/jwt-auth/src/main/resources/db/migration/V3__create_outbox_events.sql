@@ -0,0 +1,16 @@
+-- Events written in the transaction of the change they describe and delivered to their subscribers
+-- by OutboxDispatcherImpl in id order. Delivered events are deleted. Runs on PostgreSQL and H2.
+
+create sequence outbox_events_seq start with 1 increment by 50;
+
+create table outbox_events (
+    outbox_event_id bigint not null,
+    event_type varchar(50) not null,
+    aggregate_id bigint not null,
+    aggregate_uuid uuid not null,
+    created_at timestamp(6) with time zone not null,
+    attempts integer default 0 not null,
+    -- the dispatcher reads in the order of the primary key
+    constraint pk_outbox_events primary key (outbox_event_id),
+    constraint ck_outbox_events_event_type check (event_type in ('USER_CREATED'))
+);
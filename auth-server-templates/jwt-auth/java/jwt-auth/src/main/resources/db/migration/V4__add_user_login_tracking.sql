@@ -0,0 +1,6 @@
+-- Last login and login count of each user. Written in batches by UserActivityServiceImpl through the
+-- UserActivity entity, never by the User entity. Runs on PostgreSQL and H2.
+
+alter table users add column last_login_at timestamp(6) with time zone;
+
+alter table users add column login_count bigint default 0 not null;
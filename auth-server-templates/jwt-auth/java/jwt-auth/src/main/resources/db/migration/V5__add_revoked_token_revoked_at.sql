@@ -0,0 +1,9 @@
+-- When a refresh token was revoked. TokenRevocationServiceImpl syncs tokens revoked by other instances by this
+-- column with an overlap window, because ids from pooled-lo blocks are neither commit ordered nor ordered across
+-- instances. Rows written before this migration are stamped with the migration time. Runs on PostgreSQL and H2.
+
+alter table revoked_tokens add column revoked_at timestamp(6) with time zone default current_timestamp not null;
+
+alter table revoked_tokens alter column revoked_at drop default;
+
+create index idx_revoked_tokens_revoked_at on revoked_tokens (revoked_at, revoked_token_id);
@@ -0,0 +1,17 @@
+-- Every increase of users.security_version, and every deleted user, is logged here in the transaction of the
+-- change. SecurityVersionServiceImpl syncs the log into the version store of each instance, and purges rows once
+-- all refresh tokens issued before them have expired. There is no foreign key to users, rows must outlive a
+-- deleted user. Runs on PostgreSQL and H2.
+
+create sequence security_version_changes_seq start with 1 increment by 50;
+
+create table security_version_changes (
+    security_version_change_id bigint not null,
+    user_uuid uuid not null,
+    security_version bigint not null,
+    changed_at timestamp(6) with time zone not null,
+    constraint pk_security_version_changes primary key (security_version_change_id)
+);
+
+create index idx_security_version_changes_changed_at
+    on security_version_changes (changed_at, security_version_change_id);
@@ -0,0 +1,121 @@
+package com.sonastan.jwt_auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.interfaces.rest.dto.auth.LoginRequestDto;
+import com.sonastan.jwt_auth.interfaces.rest.dto.user.CreateUserDto;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Registers users and logs them in on virtual threads while JFR records every
+ * time a virtual thread blocks while pinned to its carrier, e.g. inside a
+ * synchronized block in the crypto or JDBC code.
+ */
+@SpringBootTest(properties = { "spring.threads.virtual.enabled=true",
+        // all users register and log in at once, none may be shed
+        "concurrency-limit.registration.min-limit=16", "concurrency-limit.login.min-limit=16" })
+@Import(TestcontainersConfiguration.class)
+@AutoConfigureMockMvc
+public class VirtualThreadPinningTest {
+
+    private static final int USERS = 16;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void test_register_and_login_do_not_pin_virtual_threads() throws Exception {
+        if (!roleRepository.existsByRolename(UserRole.ROLE_USER)) {
+            roleRepository.save(new Role(UserRole.ROLE_USER));
+        }
+        List<RecordedEvent> pinnedEvents = new ArrayList<>();
+        try (RecordingStream recording = new RecordingStream();
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                synchronized (pinnedEvents) {
+                    pinnedEvents.add(event);
+                }
+            });
+            recording.startAsync();
+
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                String username = "pinning" + i;
+                results.add(executor.submit(() -> {
+                    registerAndLogin(username);
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            recording.stop();
+        }
+
+        assertThat(pinnedEvents)
+                .withFailMessage(() -> "Virtual threads were pinned at:\n" + pinnedEvents.stream()
+                        .map(VirtualThreadPinningTest::describe)
+                        .distinct()
+                        .collect(Collectors.joining("\n\n")))
+                .isEmpty();
+    }
+
+    private void registerAndLogin(String username) throws Exception {
+        String password = "UserUser1234!";
+        mvc.perform(post("/v1/user/create")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new CreateUserDto(username, username + "@example.com",
+                        "firstname", "lastname", password, password))))
+                .andExpect(status().isCreated());
+        mvc.perform(post("/v1/auth/login")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new LoginRequestDto(username, password))))
+                .andExpect(status().isOk());
+    }
+
+    private static String describe(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "<no stack trace>";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .limit(24)
+                .map(RecordedFrame::getMethod)
+                .map(method -> method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining("\n  "));
+    }
+
+}
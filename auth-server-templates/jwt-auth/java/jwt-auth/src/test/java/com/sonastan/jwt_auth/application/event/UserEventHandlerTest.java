@@ -1,6 +1,7 @@
 package com.sonastan.jwt_auth.application.event;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,24 +16,42 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionOperations;
 
 import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.application.service.OutboxDispatcher;
 import com.sonastan.jwt_auth.domain.event.user.UserCreatedEvent;
+import com.sonastan.jwt_auth.domain.model.OutboxEvent;
 import com.sonastan.jwt_auth.domain.model.Profile;
 import com.sonastan.jwt_auth.domain.model.Role;
 import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.repository.OutboxEventRepository;
 import com.sonastan.jwt_auth.domain.repository.ProfileRepository;
 import com.sonastan.jwt_auth.domain.repository.RoleRepository;
 import com.sonastan.jwt_auth.domain.repository.UserRepository;
 import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
 
-@SpringBootTest
+// the scheduled dispatcher is kept out of the way, the tests dispatch themselves
+@SpringBootTest(properties = "outbox.poll-interval=1h")
 @Import(TestcontainersConfiguration.class)
 public class UserEventHandlerTest {
 
     @Autowired
     ApplicationEventPublisher eventPublisher;
 
+    @Autowired
+    TransactionOperations transactionOperations;
+
+    @Autowired
+    OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    UserEventHandler userEventHandler;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
     @Autowired
     ProfileRepository profileRepository;
 
@@ -51,34 +70,85 @@ public class UserEventHandlerTest {
     void setUp() {
         user = null;
         testEventListener.reset();
+        outboxEventRepository.deleteAll();
         user = userRepository.save(new User("test", "test@test.com", "password", "Test", "User",
                 roleRepository.save(new Role(UserRole.ROLE_USER))));
     }
 
     @AfterEach
     void cleanUp() {
+        outboxEventRepository.deleteAll();
         profileRepository.deleteAll();
         userRepository.deleteAll();
         roleRepository.deleteAll();
     }
 
     @Test
-    void test_user_created_then_profile_is_created() {
-        eventPublisher.publishEvent(new UserCreatedEvent(user));
+    void test_user_created_then_profile_is_created_by_the_dispatcher() {
+        publishInTransaction(new UserCreatedEvent(user));
+
+        outboxDispatcher.dispatch();
+
         Optional<Profile> maybeProfile = profileRepository.findByUser(user);
         assertThat(maybeProfile.isPresent()).isTrue();
         Profile profile = maybeProfile.get();
         assertThat(profile).isNotNull();
         assertThat(profile.getUser().getUserId()).isEqualTo(user.getUserId());
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void test_user_created_event_is_written_to_the_outbox() {
+        // read before the commit, so no dispatcher can have taken the event yet
+        List<OutboxEvent> events = transactionOperations.execute(status -> {
+            eventPublisher.publishEvent(new UserCreatedEvent(user));
+            return outboxEventRepository.findAll();
+        });
+
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getAggregateId()).isEqualTo(user.getUserId());
+        assertThat(events.get(0).getAggregateUuid()).isEqualTo(user.getUserUuid());
+    }
+
+    @Test
+    void test_user_created_event_outside_a_transaction_is_rejected() {
+        assertThatThrownBy(() -> eventPublisher.publishEvent(new UserCreatedEvent(user)))
+                .isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void test_user_created_event_delivered_again_creates_one_profile() {
+        OutboxEvent event = OutboxEvent.userCreated(user);
+
+        userEventHandler.handle(event);
+        userEventHandler.handle(event);
+
+        assertThat(profileRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void test_user_created_event_of_a_deleted_user_is_skipped() {
+        publishInTransaction(new UserCreatedEvent(user));
+        userRepository.deleteAll();
+
+        outboxDispatcher.dispatch();
+
+        assertThat(profileRepository.count()).isZero();
+        assertThat(outboxEventRepository.count()).isZero();
     }
 
     @Test
     void test_user_created_event_is_listened() {
-        eventPublisher.publishEvent(new UserCreatedEvent(user));
+        publishInTransaction(new UserCreatedEvent(user));
         assertThat(testEventListener.events.size()).isEqualTo(1);
         assertThat(testEventListener.events.get(0).user()).isEqualTo(user);
     }
 
+    private void publishInTransaction(Object event) {
+        transactionOperations.executeWithoutResult(status -> eventPublisher.publishEvent(event));
+    }
+
 }
 
 @Component
@@ -0,0 +1,139 @@
+package com.sonastan.jwt_auth.domain.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+
+/**
+ * The context is started with {@code ddl-auto=validate}, so it fails if the
+ * entities do not match the schema created by the migrations. The plans of the
+ * hot lookups are checked to use the unique indexes. PostgreSQL prefers a
+ * sequential scan on tables this small, so sequential scans are disabled for
+ * the explained statements.
+ */
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@Import(TestcontainersConfiguration.class)
+public class SchemaMigrationTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    boolean postgres;
+
+    @BeforeEach
+    void setUp() {
+        postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection
+                .getMetaData().getDatabaseProductName().equals("PostgreSQL"));
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    private String explain(String sql) {
+        return transactionTemplate.execute(status -> {
+            if (postgres) {
+                jdbcTemplate.execute("set local enable_seqscan = off");
+            }
+            return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class))
+                    .toLowerCase(Locale.ROOT);
+        });
+    }
+
+    @Test
+    void test_migrations_are_applied() {
+        Integer version = jdbcTemplate.queryForObject(
+                "select max(cast(\"version\" as integer)) from \"flyway_schema_history\" where \"success\" = true",
+                Integer.class);
+        assertThat(version).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void test_uuid_columns_are_native() {
+        for (String column : List.of("users.user_uuid", "profiles.profile_uuid", "roles.role_uuid",
+                "outbox_events.aggregate_uuid")) {
+            String[] tableAndColumn = column.split("\\.");
+            String type = jdbcTemplate.queryForObject("select data_type from information_schema.columns "
+                    + "where lower(table_name) = ? and lower(column_name) = ?", String.class,
+                    tableAndColumn[0], tableAndColumn[1]);
+            assertThat(type).as(column).isEqualToIgnoringCase("uuid");
+        }
+    }
+
+    @Test
+    void test_user_lookup_by_username_uses_unique_index() {
+        assertThat(explain("select user_id, password from users where username = 'username'"))
+                .contains("uk_users_username");
+    }
+
+    @Test
+    void test_user_lookup_by_email_uses_unique_index() {
+        assertThat(explain("select user_id from users where email = 'user@test.com'"))
+                .contains("uk_users_email");
+    }
+
+    @Test
+    void test_user_lookup_by_uuid_uses_unique_index() {
+        assertThat(explain(
+                "select user_id, security_version from users where user_uuid = '0190a5e4-0000-7000-8000-000000000001'"))
+                .contains("uk_users_user_uuid");
+    }
+
+    @Test
+    void test_user_existence_check_is_index_only() {
+        String plan = explain("select 1 from users where username = 'username'");
+        assertThat(plan).contains("uk_users_username");
+        if (postgres) {
+            assertThat(plan).contains("index only scan using uk_users_username");
+        }
+    }
+
+    @Test
+    void test_role_lookup_by_rolename_uses_unique_index() {
+        assertThat(explain("select role_id from roles where rolename = 'ROLE_USER'"))
+                .contains("uk_roles_rolename");
+    }
+
+    @Test
+    void test_profile_lookup_by_user_uses_primary_key() {
+        assertThat(explain("select profile_uuid from profiles where user_fk = 1"))
+                .containsAnyOf("pk_profiles", "primary_key");
+    }
+
+    @Test
+    void test_outbox_batch_is_read_in_primary_key_order() {
+        assertThat(explain("select outbox_event_id from outbox_events where attempts < 10 "
+                + "order by outbox_event_id fetch first 100 rows only"))
+                .containsAnyOf("pk_outbox_events", "primary_key");
+    }
+
+}
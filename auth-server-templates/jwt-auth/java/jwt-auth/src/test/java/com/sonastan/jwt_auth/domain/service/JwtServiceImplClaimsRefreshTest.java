@@ -0,0 +1,78 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.application.service.JwtService;
+import com.sonastan.jwt_auth.application.service.UserService;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.JwtType;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.infrastructure.exception.NotFoundException;
+import com.sonastan.jwt_auth.infrastructure.security.user.UserDetailsImpl;
+
+@SpringBootTest(properties = "jwt.refresh.mode=claims")
+@Import(TestcontainersConfiguration.class)
+public class JwtServiceImplClaimsRefreshTest {
+
+    @Autowired
+    JwtService jwtService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        user = userRepository.save(new User("test", "test@test.com", "password", "Test", "User",
+                roleRepository.save(new Role(UserRole.ROLE_USER))));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void test_access_token_is_built_from_refresh_token_claims() {
+        Jwt refreshToken = jwtService.generateRefreshToken(UserDetailsImpl.build(user));
+        // removed behind the back of the version store, so the database is not consulted again
+        userRepository.delete(user);
+
+        Jwt accessToken = jwtService.refreshAccessToken(refreshToken);
+        assertThat(accessToken.getSubject()).isEqualTo(user.getUserUuid().toString());
+        assertThat(accessToken.getClaimAsStringList("scope")).containsExactly("ROLE_USER");
+        jwtService.validateToken(accessToken.getTokenValue(), JwtType.ACCESS);
+    }
+
+    @Test
+    void test_refresh_checks_database_after_user_was_deleted() {
+        Jwt refreshToken = jwtService.generateRefreshToken(UserDetailsImpl.build(user));
+        userService.deleteUser(user.getUserUuid());
+
+        assertThrows(NotFoundException.class, () -> jwtService.refreshAccessToken(refreshToken));
+    }
+
+}
@@ -15,8 +15,10 @@ import org.springframework.security.oauth2.jwt.JwtException;
 import com.sonastan.jwt_auth.TestcontainersConfiguration;
 import com.sonastan.jwt_auth.application.service.JwtService;
 import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.model.SecurityVersionChange;
 import com.sonastan.jwt_auth.domain.model.User;
 import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.domain.repository.SecurityVersionChangeRepository;
 import com.sonastan.jwt_auth.domain.repository.UserRepository;
 import com.sonastan.jwt_auth.infrastructure.constants.JwtType;
 import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
@@ -35,6 +37,12 @@ public class JwtServiceImplTest {
     @Autowired
     RoleRepository roleRepository;
 
+    @Autowired
+    SecurityVersionChangeRepository securityVersionChangeRepository;
+
+    @Autowired
+    SecurityVersionServiceImpl securityVersionService;
+
     User user;
 
     @BeforeEach
@@ -45,6 +53,7 @@ public class JwtServiceImplTest {
 
     @AfterEach
     void cleanUp() {
+        securityVersionChangeRepository.deleteAll();
         userRepository.deleteAll();
         roleRepository.deleteAll();
     }
@@ -54,7 +63,7 @@ public class JwtServiceImplTest {
         Jwt accessToken = jwtService.generateAccessToken(UserDetailsImpl.build(user));
         assertThat(accessToken).isNotNull();
         assertThat(accessToken.getClaims()).isNotEmpty();
-        assertThat(accessToken.getSubject()).isEqualTo(user.getUserUuid());
+        assertThat(accessToken.getSubject()).isEqualTo(user.getUserUuid().toString());
         assertThat(accessToken.getClaimAsStringList("scope")).containsExactly("ROLE_USER");
         assertThat(accessToken.getClaimAsString("type")).isEqualTo(JwtType.ACCESS.name().toLowerCase());
         jwtService.validateToken(accessToken.getTokenValue(), JwtType.ACCESS);
@@ -65,7 +74,7 @@ public class JwtServiceImplTest {
         Jwt refreshToken = jwtService.generateRefreshToken(UserDetailsImpl.build(user));
         assertThat(refreshToken).isNotNull();
         assertThat(refreshToken.getClaims()).isNotEmpty();
-        assertThat(refreshToken.getSubject()).isEqualTo(user.getUserUuid());
+        assertThat(refreshToken.getSubject()).isEqualTo(user.getUserUuid().toString());
         assertThat(refreshToken.getClaimAsString("type")).isEqualTo(JwtType.REFRESH.name().toLowerCase());
     }
 
@@ -75,7 +84,7 @@ public class JwtServiceImplTest {
         Jwt accessToken = jwtService.refreshAccessToken(refreshToken);
         assertThat(accessToken).isNotNull();
         assertThat(accessToken.getClaims()).isNotEmpty();
-        assertThat(accessToken.getSubject()).isEqualTo(user.getUserUuid());
+        assertThat(accessToken.getSubject()).isEqualTo(user.getUserUuid().toString());
         assertThat(accessToken.getClaimAsStringList("scope")).containsExactly("ROLE_USER");
         assertThat(accessToken.getClaimAsString("type")).isEqualTo(JwtType.ACCESS.name().toLowerCase());
         jwtService.validateToken(accessToken.getTokenValue(), JwtType.ACCESS);
@@ -96,4 +105,59 @@ public class JwtServiceImplTest {
         assertThrows(JwtException.class, () -> jwtService.validateToken(refreshToken.getTokenValue(), JwtType.ACCESS));
         assertThrows(JwtException.class, () -> jwtService.validateToken(accessToken.getTokenValue(), JwtType.REFRESH));
     }
+
+    @Test
+    void test_decoded_token_types_are_validated_without_decoding_again() {
+        Jwt refreshToken = jwtService.generateRefreshToken(UserDetailsImpl.build(user));
+        Jwt accessToken = jwtService.refreshAccessToken(refreshToken);
+        assertThat(jwtService.validateToken(refreshToken, JwtType.REFRESH)).isSameAs(refreshToken);
+        assertThat(jwtService.validateToken(accessToken, JwtType.ACCESS)).isSameAs(accessToken);
+        assertThrows(JwtException.class, () -> jwtService.validateToken(refreshToken, JwtType.ACCESS));
+        assertThrows(JwtException.class, () -> jwtService.validateToken(accessToken, JwtType.REFRESH));
+    }
+
+    @Test
+    void test_refresh_token_carries_role_and_security_version() {
+        Jwt refreshToken = jwtService.generateRefreshToken(UserDetailsImpl.build(user));
+        assertThat(refreshToken.getClaimAsStringList("scope")).containsExactly("ROLE_USER");
+        assertThat(refreshToken.<Number>getClaim("ver").longValue()).isEqualTo(user.getSecurityVersion());
+    }
+
+    @Test
+    void test_refresh_is_rejected_if_security_version_changed() {
+        Jwt refreshToken = jwtService.generateRefreshToken(UserDetailsImpl.build(user));
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
+        userRepository.save(user);
+        assertThrows(JwtException.class, () -> jwtService.refreshAccessToken(refreshToken));
+    }
+
+    @Test
+    void test_refresh_is_rejected_if_another_instance_changed_the_cached_user() {
+        Jwt refreshToken = jwtService.generateRefreshToken(UserDetailsImpl.build(user));
+        // loads and caches the user
+        jwtService.refreshAccessToken(refreshToken);
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
+        userRepository.save(user);
+        securityVersionChangeRepository.save(new SecurityVersionChange(user.getUserUuid(), user.getSecurityVersion()));
+        securityVersionService.syncChangedVersions();
+        assertThrows(JwtException.class, () -> jwtService.refreshAccessToken(refreshToken));
+    }
+
+    @Test
+    void test_rotated_refresh_token_cannot_be_rotated_again() {
+        Jwt refreshToken = jwtService.generateRefreshToken(UserDetailsImpl.build(user));
+        Jwt rotatedRefreshToken = jwtService.rotateRefreshToken(refreshToken);
+        assertThat(rotatedRefreshToken.getId()).isNotEqualTo(refreshToken.getId());
+        assertThat(rotatedRefreshToken.getSubject()).isEqualTo(user.getUserUuid().toString());
+        assertThat(rotatedRefreshToken.getClaimAsStringList("scope")).containsExactly("ROLE_USER");
+        assertThrows(JwtException.class, () -> jwtService.rotateRefreshToken(refreshToken));
+        jwtService.rotateRefreshToken(rotatedRefreshToken);
+    }
+
+    @Test
+    void test_rotated_refresh_token_cannot_refresh_access_token() {
+        Jwt refreshToken = jwtService.generateRefreshToken(UserDetailsImpl.build(user));
+        jwtService.rotateRefreshToken(refreshToken);
+        assertThrows(JwtException.class, () -> jwtService.refreshAccessToken(refreshToken));
+    }
 }
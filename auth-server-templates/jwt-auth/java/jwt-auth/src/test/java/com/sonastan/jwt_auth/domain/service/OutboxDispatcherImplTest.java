@@ -0,0 +1,136 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.sonastan.jwt_auth.application.event.OutboxEventSubscriber;
+import com.sonastan.jwt_auth.domain.model.OutboxEvent;
+import com.sonastan.jwt_auth.domain.repository.OutboxEventRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.OutboxEventType;
+import com.sonastan.jwt_auth.infrastructure.persistence.OutboxProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class OutboxDispatcherImplTest {
+
+    static final long FAILING_AGGREGATE_ID = 2;
+
+    OutboxEventRepository repository = mock(OutboxEventRepository.class);
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    List<Long> handled = new ArrayList<>();
+
+    OutboxDispatcherImpl dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        OutboxEventSubscriber subscriber = new OutboxEventSubscriber() {
+
+            @Override
+            public OutboxEventType eventType() {
+                return OutboxEventType.USER_CREATED;
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                if (event.getAggregateId() == FAILING_AGGREGATE_ID) {
+                    throw new IllegalStateException("Subscriber failed");
+                }
+                handled.add(event.getAggregateId());
+            }
+        };
+        dispatcher = new OutboxDispatcherImpl(repository, TransactionOperations.withoutTransaction(),
+                List.of(subscriber), new OutboxProperties(Duration.ofSeconds(1), 2, 3), meterRegistry);
+    }
+
+    @Test
+    void test_dispatch_delivers_batches_until_one_is_not_full() {
+        List<OutboxEvent> first = List.of(event(1, 1), event(2, 3));
+        List<OutboxEvent> second = List.of(event(3, 4));
+        when(repository.findBatchForDispatch(anyInt(), any())).thenReturn(first, second);
+        when(repository.count()).thenReturn(0L);
+
+        int delivered = dispatcher.dispatch();
+
+        assertThat(delivered).isEqualTo(3);
+        assertThat(handled).containsExactly(1L, 3L, 4L);
+        verify(repository).deleteAllInBatch(first);
+        verify(repository).deleteAllInBatch(second);
+        assertThat(meterRegistry.get("outbox.dispatched").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("outbox.backlog").gauge().value()).isZero();
+    }
+
+    @Test
+    void test_dispatch_retries_a_failed_batch_one_event_at_a_time() {
+        OutboxEvent delivered = event(1, 1);
+        OutboxEvent failing = event(2, FAILING_AGGREGATE_ID);
+        when(repository.findBatchForDispatch(anyInt(), any())).thenReturn(List.of(failing, delivered));
+        when(repository.findForDispatchById(1L)).thenReturn(Optional.of(delivered));
+        when(repository.findForDispatchById(2L)).thenReturn(Optional.of(failing));
+        when(repository.count()).thenReturn(1L);
+
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+
+        assertThat(handled).containsExactly(1L);
+        verify(repository, never()).deleteAllInBatch(any());
+        verify(repository).delete(delivered);
+        verify(repository, never()).delete(failing);
+        verify(repository).incrementAttempts(2L);
+        assertThat(meterRegistry.get("outbox.failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("outbox.backlog").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void test_dispatch_retries_a_failing_event_once_per_run() {
+        OutboxEvent delivered = event(1, 1);
+        OutboxEvent failing = event(2, FAILING_AGGREGATE_ID);
+        when(repository.findBatchForDispatch(anyInt(), any())).thenReturn(List.of(failing, delivered));
+        when(repository.findForDispatchById(1L)).thenReturn(Optional.of(delivered));
+        when(repository.findForDispatchById(2L)).thenReturn(Optional.of(failing));
+
+        dispatcher.dispatch();
+
+        verify(repository, times(1)).findBatchForDispatch(anyInt(), any());
+        verify(repository, times(1)).incrementAttempts(2L);
+
+        dispatcher.dispatch();
+
+        verify(repository, times(2)).findBatchForDispatch(anyInt(), any());
+        verify(repository, times(2)).incrementAttempts(2L);
+    }
+
+    @Test
+    void test_dispatch_skips_events_locked_by_another_instance_meanwhile() {
+        when(repository.findBatchForDispatch(anyInt(), any())).thenReturn(List.of(event(2, FAILING_AGGREGATE_ID)));
+        when(repository.findForDispatchById(2L)).thenReturn(Optional.empty());
+
+        assertThat(dispatcher.dispatch()).isZero();
+
+        verify(repository, never()).incrementAttempts(any());
+    }
+
+    private static OutboxEvent event(long outboxEventId, long aggregateId) {
+        OutboxEvent event = new OutboxEvent(OutboxEventType.USER_CREATED, aggregateId, UUID.randomUUID());
+        event.setOutboxEventId(outboxEventId);
+        return event;
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.domain.repository.SecurityVersionChangeRepository;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtRefreshProperties;
+
+// each test runs its own instances, the scheduled sync of the context is kept out of the way
+@SpringBootTest(properties = "jwt.refresh.version-sync-interval=1h")
+@Import(TestcontainersConfiguration.class)
+public class SecurityVersionServiceImplTest {
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    SecurityVersionChangeRepository securityVersionChangeRepository;
+
+    @Autowired
+    JwtRefreshProperties refreshProperties;
+
+    @Autowired
+    TransactionOperations transactionOperations;
+
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("test", "test@test.com", "password", "Test", "User",
+                roleRepository.save(new Role(UserRole.ROLE_USER))));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        securityVersionChangeRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void test_version_increased_on_another_instance_is_synced() {
+        SecurityVersionServiceImpl instance = newInstance();
+        SecurityVersionServiceImpl otherInstance = newInstance();
+        otherInstance.syncChangedVersions();
+
+        long securityVersion = transactionOperations.execute(status -> instance.increment(user.getUserUuid()));
+        assertThat(otherInstance.isCurrent(user.getUserUuid(), user.getSecurityVersion())).isTrue();
+        otherInstance.syncChangedVersions();
+
+        assertThat(securityVersion).isEqualTo(user.getSecurityVersion() + 1);
+        assertThat(userRepository.findSecurityVersionByUserUuid(user.getUserUuid())).contains(securityVersion);
+        assertThat(otherInstance.isCurrent(user.getUserUuid(), user.getSecurityVersion())).isFalse();
+        assertThat(otherInstance.isCurrent(user.getUserUuid(), securityVersion)).isTrue();
+    }
+
+    @Test
+    void test_deleted_user_is_synced_to_instances_started_later() {
+        SecurityVersionServiceImpl instance = newInstance();
+        transactionOperations.executeWithoutResult(status -> {
+            userRepository.deleteByUserUuid(user.getUserUuid());
+            instance.revoke(user.getUserUuid());
+        });
+
+        SecurityVersionServiceImpl laterInstance = newInstance();
+        laterInstance.syncChangedVersions();
+
+        assertThat(laterInstance.isCurrent(user.getUserUuid(), user.getSecurityVersion())).isFalse();
+    }
+
+    @Test
+    void test_rolled_back_change_is_not_synced() {
+        SecurityVersionServiceImpl instance = newInstance();
+        SecurityVersionServiceImpl otherInstance = newInstance();
+
+        transactionOperations.executeWithoutResult(status -> {
+            instance.increment(user.getUserUuid());
+            status.setRollbackOnly();
+        });
+        otherInstance.syncChangedVersions();
+
+        assertThat(userRepository.findSecurityVersionByUserUuid(user.getUserUuid()))
+                .contains(user.getSecurityVersion());
+        assertThat(otherInstance.isCurrent(user.getUserUuid(), user.getSecurityVersion())).isTrue();
+    }
+
+    private SecurityVersionServiceImpl newInstance() {
+        return new SecurityVersionServiceImpl(userRepository, securityVersionChangeRepository, refreshProperties);
+    }
+
+}
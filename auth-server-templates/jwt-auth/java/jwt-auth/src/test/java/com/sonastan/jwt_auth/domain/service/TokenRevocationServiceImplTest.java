@@ -0,0 +1,103 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.domain.model.RevokedToken;
+import com.sonastan.jwt_auth.domain.repository.RevokedTokenRepository;
+import com.sonastan.jwt_auth.infrastructure.security.jwt.JwtRevocationProperties;
+
+// each test runs its own instances, the scheduled sync of the context is kept out of the way
+@SpringBootTest(properties = "jwt.revocation.sync-interval=1h")
+@Import(TestcontainersConfiguration.class)
+public class TokenRevocationServiceImplTest {
+
+    @Autowired
+    RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    JwtRevocationProperties revocationProperties;
+
+    @AfterEach
+    void cleanUp() {
+        revokedTokenRepository.deleteAll();
+    }
+
+    @Test
+    void test_token_revoked_on_another_instance_is_synced() {
+        TokenRevocationServiceImpl instance = new TokenRevocationServiceImpl(revokedTokenRepository,
+                revocationProperties);
+        TokenRevocationServiceImpl otherInstance = new TokenRevocationServiceImpl(revokedTokenRepository,
+                revocationProperties);
+        Jwt refreshToken = refreshToken();
+
+        instance.revoke(refreshToken);
+        assertThat(otherInstance.isRevoked(refreshToken)).isFalse();
+        otherInstance.syncRevokedTokens();
+
+        assertThat(otherInstance.isRevoked(refreshToken)).isTrue();
+        assertThrows(JwtException.class, () -> otherInstance.revoke(refreshToken));
+    }
+
+    @Test
+    void test_token_committed_after_a_later_revocation_is_synced() {
+        TokenRevocationServiceImpl instance = new TokenRevocationServiceImpl(revokedTokenRepository,
+                revocationProperties);
+        TokenRevocationServiceImpl otherInstance = new TokenRevocationServiceImpl(revokedTokenRepository,
+                revocationProperties);
+        Jwt lateRefreshToken = refreshToken();
+        // revoked first, but its transaction commits after the next sync
+        RevokedToken lateRevokedToken = new RevokedToken(lateRefreshToken.getId(), lateRefreshToken.getSubject(),
+                lateRefreshToken.getExpiresAt());
+        lateRevokedToken.setRevokedAt(Instant.now().minusSeconds(1));
+        Jwt refreshToken = refreshToken();
+
+        instance.revoke(refreshToken);
+        otherInstance.syncRevokedTokens();
+        revokedTokenRepository.saveAndFlush(lateRevokedToken);
+        otherInstance.syncRevokedTokens();
+
+        assertThat(otherInstance.isRevoked(refreshToken)).isTrue();
+        assertThat(otherInstance.isRevoked(lateRefreshToken)).isTrue();
+    }
+
+    @Test
+    void test_token_revoked_before_the_overlap_window_is_loaded_on_startup() {
+        Jwt refreshToken = refreshToken();
+        RevokedToken revokedToken = new RevokedToken(refreshToken.getId(), refreshToken.getSubject(),
+                refreshToken.getExpiresAt());
+        revokedToken.setRevokedAt(Instant.now().minus(Duration.ofMinutes(30)));
+        revokedTokenRepository.saveAndFlush(revokedToken);
+
+        TokenRevocationServiceImpl instance = new TokenRevocationServiceImpl(revokedTokenRepository,
+                revocationProperties);
+        instance.syncRevokedTokens();
+
+        assertThat(instance.isRevoked(refreshToken)).isTrue();
+    }
+
+    private static Jwt refreshToken() {
+        Instant now = Instant.now();
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .jti(UUID.randomUUID().toString())
+                .subject(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofHours(1)))
+                .build();
+    }
+
+}
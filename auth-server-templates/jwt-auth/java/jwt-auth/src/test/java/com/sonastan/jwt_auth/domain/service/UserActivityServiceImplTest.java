@@ -0,0 +1,142 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.application.service.UserActivityService;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.model.UserActivity;
+import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.domain.repository.UserActivityRepository;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+// the scheduled flush is kept out of the way, the tests flush themselves or through the flush size
+@SpringBootTest(properties = { "user-activity.flush-interval=1h", "user-activity.flush-size=3",
+        "spring.jpa.properties.hibernate.generate_statistics=true" })
+@Import(TestcontainersConfiguration.class)
+public class UserActivityServiceImplTest {
+
+    @Autowired
+    UserActivityService userActivityService;
+
+    @Autowired
+    UserActivityRepository userActivityRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    User alice;
+
+    User bob;
+
+    User carol;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        Role role = roleRepository.save(new Role(UserRole.ROLE_USER));
+        alice = userRepository.save(new User("alice", "alice@test.com", "password", "Alice", "User", role));
+        bob = userRepository.save(new User("bob", "bob@test.com", "password", "Bob", "User", role));
+        carol = userRepository.save(new User("carol", "carol@test.com", "password", "Carol", "User", role));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userActivityService.flush();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void test_repeated_logins_are_written_as_one_update_per_user() {
+        userActivityService.recordLogin(alice.getUserUuid());
+        userActivityService.recordLogin(alice.getUserUuid());
+        userActivityService.recordLogin(bob.getUserUuid());
+        userActivityService.recordLogin(alice.getUserUuid());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(userActivityService.flush()).isEqualTo(2);
+
+        // one locking select and one batch of updates
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(2);
+        UserActivity aliceActivity = userActivityRepository.findByUserUuid(alice.getUserUuid()).orElseThrow();
+        assertThat(aliceActivity.getLoginCount()).isEqualTo(3);
+        assertThat(aliceActivity.getLastLoginAt()).isNotNull();
+        assertThat(userActivityRepository.findByUserUuid(bob.getUserUuid()).orElseThrow().getLoginCount())
+                .isEqualTo(1);
+        assertThat(userActivityRepository.findByUserUuid(carol.getUserUuid()).orElseThrow().getLastLoginAt())
+                .isNull();
+    }
+
+    @Test
+    void test_logins_are_added_to_the_written_ones() {
+        userActivityService.recordLogin(alice.getUserUuid());
+        userActivityService.flush();
+        UserActivity first = userActivityRepository.findByUserUuid(alice.getUserUuid()).orElseThrow();
+
+        userActivityService.recordLogin(alice.getUserUuid());
+        userActivityService.recordLogin(alice.getUserUuid());
+        userActivityService.flush();
+
+        UserActivity second = userActivityRepository.findByUserUuid(alice.getUserUuid()).orElseThrow();
+        assertThat(second.getLoginCount()).isEqualTo(3);
+        assertThat(second.getLastLoginAt()).isAfterOrEqualTo(first.getLastLoginAt());
+    }
+
+    @Test
+    void test_logins_are_written_once_flush_size_users_logged_in() throws Exception {
+        for (User user : List.of(alice, bob, carol)) {
+            userActivityService.recordLogin(user.getUserUuid());
+        }
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (loginCount() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(loginCount()).isEqualTo(3);
+        assertThat(meterRegistry.get("user.activity.flush.lag").timer().count()).isPositive();
+    }
+
+    @Test
+    void test_logins_of_deleted_users_are_dropped() {
+        userActivityService.recordLogin(alice.getUserUuid());
+        userRepository.delete(alice);
+
+        assertThat(userActivityService.flush()).isZero();
+        assertThat(meterRegistry.get("user.activity.pending").gauge().value()).isZero();
+    }
+
+    private long loginCount() {
+        return userActivityRepository.findAll().stream().mapToLong(UserActivity::getLoginCount).sum();
+    }
+
+}
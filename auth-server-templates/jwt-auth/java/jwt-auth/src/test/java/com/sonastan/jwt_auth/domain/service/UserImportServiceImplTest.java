@@ -0,0 +1,116 @@
+package com.sonastan.jwt_auth.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.application.service.UserImportService;
+import com.sonastan.jwt_auth.domain.model.MigratedUser;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.model.UserImportResult;
+import com.sonastan.jwt_auth.domain.repository.ProfileRepository;
+import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "user-import.chunk-size=500" })
+@Import(TestcontainersConfiguration.class)
+public class UserImportServiceImplTest {
+
+    // the lowest work factor keeps the fixtures fast, imported hashes are kept as they are
+    private static final String PASSWORD = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("UserUser1234!");
+
+    @Autowired
+    UserImportService userImportService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    ProfileRepository profileRepository;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        profileRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        profileRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    private static Stream<MigratedUser> users(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> user("user" + i, "user" + i + "@test.com"));
+    }
+
+    private static MigratedUser user(String username, String email) {
+        return new MigratedUser(username, email, PASSWORD, "firstname", "lastname", null, null);
+    }
+
+    @Test
+    void test_users_are_inserted_in_batches() {
+        UserImportResult result = userImportService.importUsers(users(0, 2_000));
+
+        assertThat(result).isEqualTo(new UserImportResult(2_000, 0));
+        assertThat(userRepository.count()).isEqualTo(2_000);
+        assertThat(profileRepository.count()).isEqualTo(2_000);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(4_000);
+        // 40 user and 40 profile batches of 50 plus 40 sequence calls, instead of one statement per insert
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(200);
+    }
+
+    @Test
+    void test_imported_password_hash_is_kept() {
+        userImportService.importUsers(users(0, 1));
+
+        String password = userRepository.findByUsername("user0").orElseThrow().getPassword();
+        assertThat(password).isEqualTo(PASSWORD);
+        assertThat(passwordEncoder.matches("UserUser1234!", password)).isTrue();
+    }
+
+    @Test
+    void test_only_users_violating_a_constraint_are_rejected() {
+        userImportService.importUsers(users(0, 10));
+
+        UserImportResult result = userImportService.importUsers(Stream.concat(users(5, 15),
+                Stream.of(user("unique", "user20@test.com"), user("other", "user20@test.com"))));
+
+        assertThat(result).isEqualTo(new UserImportResult(6, 6));
+        assertThat(userRepository.count()).isEqualTo(16);
+        assertThat(profileRepository.count()).isEqualTo(16);
+    }
+}
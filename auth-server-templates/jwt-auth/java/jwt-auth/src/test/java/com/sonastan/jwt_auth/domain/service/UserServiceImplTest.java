@@ -11,14 +11,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.application.service.RoleService;
+import com.sonastan.jwt_auth.application.service.SecurityVersionService;
 import com.sonastan.jwt_auth.application.service.UserService;
 import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.model.SecurityVersionChange;
+import com.sonastan.jwt_auth.domain.model.User;
 import com.sonastan.jwt_auth.domain.repository.ProfileRepository;
 import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.domain.repository.SecurityVersionChangeRepository;
 import com.sonastan.jwt_auth.domain.repository.UserRepository;
 import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
 import com.sonastan.jwt_auth.infrastructure.exception.IllegalModelArgumentException;
@@ -42,6 +48,18 @@ public class UserServiceImplTest {
     @Autowired
     ProfileRepository profileRepository;
 
+    @Autowired
+    RoleService roleService;
+
+    @Autowired
+    SecurityVersionService securityVersionService;
+
+    @Autowired
+    SecurityVersionServiceImpl securityVersionServiceImpl;
+
+    @Autowired
+    SecurityVersionChangeRepository securityVersionChangeRepository;
+
     @BeforeEach
     void setUp() {
         profileRepository.deleteAll();
@@ -69,7 +87,7 @@ public class UserServiceImplTest {
 
     @Test
     void test_throw_notfoundexception_if_user_does_not_exist() {
-        assertThrows(NotFoundException.class, () -> userService.deleteUser(UUID.randomUUID().toString()));
+        assertThrows(NotFoundException.class, () -> userService.deleteUser(UUID.randomUUID()));
     }
 
     @Test
@@ -105,7 +123,7 @@ public class UserServiceImplTest {
 
     @Test
     void test_throw_notfoundexception_if_user_by_uuid_not_found() {
-        assertThrows(NotFoundException.class, () -> userService.loadUserByUuid(UUID.randomUUID().toString()));
+        assertThrows(NotFoundException.class, () -> userService.loadUserByUuid(UUID.randomUUID()));
     }
 
     @Test
@@ -223,7 +241,129 @@ public class UserServiceImplTest {
 
     @Test
     void test_throw_notfoundexception_if_update_user_by_uuid_not_found() {
-        assertThrows(NotFoundException.class, () -> userService.updateUser(UUID.randomUUID().toString(), "newUsername",
+        assertThrows(NotFoundException.class, () -> userService.updateUser(UUID.randomUUID(), "newUsername",
                 "newEmail", "newFirstname", "newLastname"));
     }
+
+    @Test
+    void test_role_table_follows_role_changes() {
+        assertThat(roleService.findByRolename(UserRole.ROLE_USER)).isEmpty();
+        Role role = roleRepository.save(new Role(UserRole.ROLE_USER));
+        assertThat(roleService.findByRolename(UserRole.ROLE_USER)).get()
+                .extracting(Role::getRoleId).isEqualTo(role.getRoleId());
+        roleRepository.deleteAll();
+        assertThat(roleService.findByRolename(UserRole.ROLE_USER)).isEmpty();
+    }
+
+    @Test
+    void test_loaded_user_is_cached_until_updated() {
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+        UserDetailsImpl user = (UserDetailsImpl) userService.registerUser("cachedUsername", "UserUser1234!",
+                "UserUser1234!", "cachedEmail", "firstname", "lastname");
+        UserDetails loadedUser = userService.loadUserByUuid(user.getUserUuid());
+        assertThat(userService.loadUserByUuid(user.getUserUuid())).isSameAs(loadedUser);
+        assertThat(userService.loadUserByUsername("cachedUsername")).isSameAs(loadedUser);
+
+        userService.updateUser(user.getUserUuid(), "newCachedUsername", "cachedEmail", "firstname", "lastname");
+
+        assertThat(userService.loadUserByUuid(user.getUserUuid()).getUsername()).isEqualTo("newCachedUsername");
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("cachedUsername"));
+    }
+
+    @Test
+    void test_deleted_user_is_evicted_from_cache() {
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+        UserDetailsImpl user = (UserDetailsImpl) userService.registerUser("cachedUsername", "UserUser1234!",
+                "UserUser1234!", "cachedEmail", "firstname", "lastname");
+        userService.loadUserByUsername("cachedUsername");
+
+        userService.deleteUser(user.getUserUuid());
+
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("cachedUsername"));
+        assertThrows(NotFoundException.class, () -> userService.loadUserByUuid(user.getUserUuid()));
+    }
+
+    @Test
+    void test_user_changed_on_another_instance_is_reloaded_after_the_version_sync() {
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+        UserDetailsImpl user = (UserDetailsImpl) userService.registerUser("cachedUsername", "UserUser1234!",
+                "UserUser1234!", "cachedEmail", "firstname", "lastname");
+        userService.loadUserByUsername("cachedUsername");
+
+        User changedUser = userRepository.findByUserUuid(user.getUserUuid()).orElseThrow();
+        changedUser.setPassword("changedPassword");
+        changedUser.setSecurityVersion(changedUser.getSecurityVersion() + 1);
+        userRepository.save(changedUser);
+        securityVersionChangeRepository.save(
+                new SecurityVersionChange(user.getUserUuid(), changedUser.getSecurityVersion()));
+        securityVersionServiceImpl.syncChangedVersions();
+
+        assertThat(userService.loadUserByUsername("cachedUsername").getPassword()).isEqualTo("changedPassword");
+        assertThat(userService.loadUserByUuid(user.getUserUuid()).getPassword()).isEqualTo("changedPassword");
+    }
+
+    @Test
+    void test_user_deleted_on_another_instance_is_not_served_from_cache_after_the_version_sync() {
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+        UserDetailsImpl user = (UserDetailsImpl) userService.registerUser("cachedUsername", "UserUser1234!",
+                "UserUser1234!", "cachedEmail", "firstname", "lastname");
+        userService.loadUserByUsername("cachedUsername");
+
+        profileRepository.deleteAll();
+        userRepository.deleteAll();
+        securityVersionChangeRepository.save(new SecurityVersionChange(user.getUserUuid(), Long.MAX_VALUE));
+        securityVersionServiceImpl.syncChangedVersions();
+
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("cachedUsername"));
+        assertThrows(NotFoundException.class, () -> userService.loadUserByUuid(user.getUserUuid()));
+    }
+
+    @Test
+    void test_password_change_increases_security_version() {
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+        UserDetailsImpl user = (UserDetailsImpl) userService.registerUser("username", "UserUser1234!",
+                "UserUser1234!", "email", "firstname", "lastname");
+
+        userService.changePassword(user.getUserUuid(), "UserUser1234!", "NewUser1234!", "NewUser1234!");
+
+        UserDetailsImpl changedUser = (UserDetailsImpl) userService.loadUserByUuid(user.getUserUuid());
+        assertThat(changedUser.getPassword()).isNotEqualTo(user.getPassword());
+        assertThat(changedUser.getSecurityVersion()).isEqualTo(user.getSecurityVersion() + 1);
+        assertThat(securityVersionService.isCurrent(user.getUserUuid(), user.getSecurityVersion())).isFalse();
+        assertThat(securityVersionService.isCurrent(user.getUserUuid(), changedUser.getSecurityVersion())).isTrue();
+    }
+
+    @Test
+    void test_throw_illegalmodelargumentexception_if_old_password_is_wrong() {
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+        UserDetailsImpl user = (UserDetailsImpl) userService.registerUser("username", "UserUser1234!",
+                "UserUser1234!", "email", "firstname", "lastname");
+
+        assertThrows(IllegalModelArgumentException.class,
+                () -> userService.changePassword(user.getUserUuid(), "WrongUser1234!", "NewUser1234!",
+                        "NewUser1234!"));
+        assertThat(((UserDetailsImpl) userService.loadUserByUuid(user.getUserUuid())).getSecurityVersion())
+                .isEqualTo(user.getSecurityVersion());
+    }
+
+    @Test
+    void test_role_change_increases_security_version() {
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+        roleRepository.save(new Role(UserRole.ROLE_ADMIN));
+        UserDetailsImpl user = (UserDetailsImpl) userService.registerUser("username", "UserUser1234!",
+                "UserUser1234!", "email", "firstname", "lastname");
+
+        userService.changeRole(user.getUserUuid(), UserRole.ROLE_ADMIN);
+
+        UserDetailsImpl changedUser = (UserDetailsImpl) userService.loadUserByUuid(user.getUserUuid());
+        assertThat(changedUser.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        assertThat(changedUser.getSecurityVersion()).isEqualTo(user.getSecurityVersion() + 1);
+        assertThat(securityVersionService.isCurrent(user.getUserUuid(), user.getSecurityVersion())).isFalse();
+    }
+
+    @Test
+    void test_throw_notfoundexception_if_role_change_user_not_found() {
+        roleRepository.save(new Role(UserRole.ROLE_ADMIN));
+        assertThrows(NotFoundException.class, () -> userService.changeRole(UUID.randomUUID(), UserRole.ROLE_ADMIN));
+    }
 }
@@ -0,0 +1,186 @@
+package com.sonastan.jwt_auth.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Routes between in-memory H2 databases standing in for the primary and the
+ * replicas. The lag of a replica is read from its replica_lag table.
+ */
+public class ReplicaDataSourceTest {
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    HikariDataSource primary;
+
+    ReplicaDataSource dataSource;
+
+    // the writer of the current transaction, none for background jobs
+    String writer;
+
+    @BeforeEach
+    void setUp() {
+        primary = dataSource("primary");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+        primary.close();
+    }
+
+    @Test
+    void test_reads_from_the_primary_before_the_first_check() throws Exception {
+        dataSource = replicaDataSource(replica("replica_0", 0));
+
+        assertThat(target(dataSource)).isEqualTo("PRIMARY");
+        assertThat(connections("primary")).isEqualTo(1);
+    }
+
+    @Test
+    void test_reads_from_the_replicas_in_turn() throws Exception {
+        dataSource = replicaDataSource(replica("replica_0", 0), replica("replica_1", 0));
+        dataSource.checkReplicas();
+
+        List<String> targets = List.of(target(dataSource), target(dataSource), target(dataSource));
+
+        assertThat(targets.subList(0, 2)).containsExactlyInAnyOrder("REPLICA_0", "REPLICA_1");
+        assertThat(targets.get(2)).isEqualTo(targets.get(0));
+        assertThat(connections("replica_0") + connections("replica_1")).isEqualTo(3);
+        assertThat(meterRegistry.get("datasource.replica.lag").tag("pool", "replica_0").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void test_reads_from_the_primary_while_the_replica_lags_behind() throws Exception {
+        HikariDataSource replica = replica("replica_0", 5);
+        dataSource = replicaDataSource(replica);
+        dataSource.checkReplicas();
+
+        assertThat(target(dataSource)).isEqualTo("PRIMARY");
+
+        setLag(replica, 0.5);
+        dataSource.checkReplicas();
+
+        assertThat(target(dataSource)).isEqualTo("REPLICA_0");
+    }
+
+    @Test
+    void test_reads_from_the_primary_after_a_write_until_the_replica_caught_up() throws Exception {
+        dataSource = replicaDataSource(replica("replica_0", 0));
+        dataSource.checkReplicas();
+        writer = "alice";
+        assertThat(target(dataSource)).isEqualTo("REPLICA_0");
+
+        try (Connection connection = dataSource.writes().getConnection()) {
+            assertThat(name(connection)).isEqualTo("PRIMARY");
+        }
+
+        assertThat(target(dataSource)).isEqualTo("PRIMARY");
+
+        Thread.sleep(1);
+        dataSource.checkReplicas();
+
+        assertThat(target(dataSource)).isEqualTo("REPLICA_0");
+    }
+
+    @Test
+    void test_reads_from_the_replica_while_others_write() throws Exception {
+        dataSource = replicaDataSource(replica("replica_0", 0));
+        dataSource.checkReplicas();
+
+        writer = "alice";
+        write();
+        writer = null;
+        write();
+
+        writer = "bob";
+        assertThat(target(dataSource)).isEqualTo("REPLICA_0");
+        writer = null;
+        assertThat(target(dataSource)).isEqualTo("REPLICA_0");
+        writer = "alice";
+        assertThat(target(dataSource)).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    void test_reads_from_the_primary_while_the_replica_is_unreachable() throws Exception {
+        HikariDataSource unreachable = new HikariDataSource();
+        unreachable.setPoolName("unreachable");
+        unreachable.setJdbcUrl("jdbc:h2:tcp://localhost:1/unreachable");
+        unreachable.setConnectionTimeout(250);
+        unreachable.setInitializationFailTimeout(-1);
+        dataSource = replicaDataSource(unreachable);
+        dataSource.checkReplicas();
+
+        assertThat(target(dataSource)).isEqualTo("PRIMARY");
+        assertThat(meterRegistry.get("datasource.replica.lag").tag("pool", "unreachable").gauge().value())
+                .isNaN();
+    }
+
+    private ReplicaDataSource replicaDataSource(HikariDataSource... replicas) {
+        ReadReplicaProperties properties = new ReadReplicaProperties(true, List.of(), null, null,
+                Duration.ofSeconds(1), Duration.ofSeconds(1), "select seconds from replica_lag");
+        return new ReplicaDataSource(primary, List.of(replicas), properties,
+                () -> writer != null ? List.of(writer) : List.of(), meterRegistry);
+    }
+
+    private void write() throws SQLException {
+        try (Connection connection = dataSource.writes().getConnection()) {
+            assertThat(name(connection)).isEqualTo("PRIMARY");
+        }
+    }
+
+    private double connections(String target) {
+        return meterRegistry.get("datasource.read-only.connections").tag("target", target).counter().count();
+    }
+
+    private HikariDataSource replica(String name, double lagSeconds) throws SQLException {
+        HikariDataSource replica = dataSource(name);
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table replica_lag (seconds double precision)");
+            statement.execute("insert into replica_lag values (" + lagSeconds + ")");
+        }
+        return replica;
+    }
+
+    private static void setLag(HikariDataSource replica, double lagSeconds) throws SQLException {
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("update replica_lag set seconds = " + lagSeconds);
+        }
+    }
+
+    private static HikariDataSource dataSource(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "");
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+
+    private static String target(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return name(connection);
+        }
+    }
+
+    private static String name(Connection connection) throws SQLException {
+        return connection.getCatalog();
+    }
+
+}
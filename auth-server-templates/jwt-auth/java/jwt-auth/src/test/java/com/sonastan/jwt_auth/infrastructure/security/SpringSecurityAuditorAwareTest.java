@@ -81,7 +81,7 @@ public class SpringSecurityAuditorAwareTest {
         SecurityContextHolder.getContext().setAuthentication(authenticate);
         UserDetailsImpl userDetails = (UserDetailsImpl) authenticate.getPrincipal();
 
-        assertThat(auditorAware.getCurrentAuditor().get()).isEqualTo(userDetails.getUserUuid());
+        assertThat(auditorAware.getCurrentAuditor().get()).isEqualTo(userDetails.getUserUuid().toString());
 
         userRepository.deleteAll();
         roleRepository.deleteAll();
@@ -0,0 +1,97 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.nimbusds.jwt.SignedJWT;
+import com.sonastan.jwt_auth.infrastructure.constants.JwtSigningAlgorithm;
+
+public class CachedSignerJwtEncoderTest {
+
+    private static JwtSigningKey signingKey(JwtSigningAlgorithm algorithm, String keyLocation) {
+        return JwtSigningKey.load(new JwtSigningProperties(algorithm, new ClassPathResource(keyLocation)));
+    }
+
+    private static JwtClaimsSet claims() {
+        Instant now = Instant.now();
+        return JwtClaimsSet.builder()
+                .subject("user-uuid")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(300))
+                .issuer("http://localhost:8080")
+                .claim("scope", List.of("ROLE_USER"))
+                .claim("type", "access")
+                .build();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "RS256, keys/private.pem",
+            "ES256, keys/ec-private.pem",
+            "EdDSA, keys/ed25519.jwk.json"
+    })
+    void test_encoded_token_is_signed_with_configured_algorithm(JwtSigningAlgorithm algorithm, String keyLocation)
+            throws Exception {
+        JwtSigningKey signingKey = signingKey(algorithm, keyLocation);
+        CachedSignerJwtEncoder encoder = new CachedSignerJwtEncoder(signingKey);
+
+        Jwt jwt = encoder.encode(JwtEncoderParameters.from(claims()));
+
+        SignedJWT signedJwt = SignedJWT.parse(jwt.getTokenValue());
+        assertThat(signedJwt.getHeader().getAlgorithm()).isEqualTo(algorithm.getJwsAlgorithm());
+        assertThat(signedJwt.verify(signingKey.getVerifier())).isTrue();
+        assertThat(signedJwt.getJWTClaimsSet().getSubject()).isEqualTo("user-uuid");
+        assertThat(signedJwt.getJWTClaimsSet().getStringListClaim("scope")).containsExactly("ROLE_USER");
+        assertThat(jwt.getHeaders()).containsEntry("alg", algorithm.getJwsAlgorithm().getName());
+        assertThat(jwt.getClaimAsString("type")).isEqualTo("access");
+
+        Jwt decoded = signingKey.jwtDecoder().decode(jwt.getTokenValue());
+        assertThat(decoded.getSubject()).isEqualTo("user-uuid");
+        assertThat(decoded.getClaimAsStringList("scope")).containsExactly("ROLE_USER");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "ES256, keys/private.pem",
+            "EdDSA, keys/ec-private.pem",
+            "RS256, keys/ed25519.jwk.json"
+    })
+    void test_throws_if_key_does_not_match_algorithm(JwtSigningAlgorithm algorithm, String keyLocation) {
+        assertThatThrownBy(() -> signingKey(algorithm, keyLocation)).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void test_decoder_rejects_token_signed_with_other_key() {
+        Jwt jwt = new CachedSignerJwtEncoder(signingKey(JwtSigningAlgorithm.ES256, "keys/ec-private.pem"))
+                .encode(JwtEncoderParameters.from(claims()));
+
+        assertThatThrownBy(() -> signingKey(JwtSigningAlgorithm.RS256, "keys/private.pem").jwtDecoder()
+                .decode(jwt.getTokenValue())).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void test_throws_if_header_algorithm_does_not_match_key() {
+        CachedSignerJwtEncoder encoder = new CachedSignerJwtEncoder(
+                signingKey(JwtSigningAlgorithm.RS256, "keys/private.pem"));
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.ES256).build();
+
+        assertThatThrownBy(() -> encoder.encode(JwtEncoderParameters.from(header, claims())))
+                .isInstanceOf(JwtEncodingException.class);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CachingJwtDecoderTest {
+
+    AtomicInteger delegateCalls = new AtomicInteger();
+
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    AtomicLong nanos = new AtomicLong(CachingJwtDecoder.epochNanos(now));
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    Instant expiresAt = now.plusSeconds(300);
+
+    CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        JwtDecoder delegate = token -> {
+            delegateCalls.incrementAndGet();
+            if (token.startsWith("invalid")) {
+                throw new BadJwtException("Invalid token");
+            }
+            return Jwt.withTokenValue(token)
+                    .header("alg", "RS256")
+                    .subject("user-uuid")
+                    .issuedAt(now)
+                    .expiresAt(expiresAt)
+                    .build();
+        };
+        decoder = new CachingJwtDecoder(delegate, 2, meterRegistry, nanos::get);
+    }
+
+    @Test
+    void test_repeated_token_is_verified_once() {
+        Jwt first = decoder.decode("token");
+        Jwt second = decoder.decode("token");
+
+        assertThat(second).isSameAs(first);
+        assertThat(delegateCalls).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CachingJwtDecoder.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CachingJwtDecoder.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void test_token_is_verified_again_after_it_expired() {
+        decoder.decode("token");
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(299));
+        decoder.decode("token");
+
+        assertThat(delegateCalls).hasValue(1);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        decoder.decode("token");
+
+        assertThat(delegateCalls).hasValue(2);
+    }
+
+    @Test
+    void test_invalid_token_is_not_cached() {
+        assertThatThrownBy(() -> decoder.decode("invalid")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("invalid")).isInstanceOf(BadJwtException.class);
+
+        assertThat(delegateCalls).hasValue(2);
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.sonastan.jwt_auth.infrastructure.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class TimeBucketedBloomFilterTest {
+
+    TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(Duration.ofMinutes(10), 10_000, 0.01);
+
+    @Test
+    void test_added_keys_are_always_found() {
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        for (int i = 0; i < 10_000; i++) {
+            String jti = UUID.randomUUID().toString();
+            filter.put(jti, expiresAt.plusSeconds(i));
+            assertThat(filter.mightContain(jti)).isTrue();
+        }
+    }
+
+    @Test
+    void test_false_positive_rate_stays_near_configured_probability() {
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID().toString(), expiresAt);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void test_expired_buckets_are_dropped() {
+        Instant now = Instant.now();
+        filter.put("expired", now.minus(Duration.ofMinutes(30)));
+        filter.put("valid", now.plus(Duration.ofMinutes(30)));
+
+        assertThat(filter.expire(now)).isEqualTo(1);
+        assertThat(filter.bucketCount()).isEqualTo(1);
+        assertThat(filter.mightContain("expired")).isFalse();
+        assertThat(filter.mightContain("valid")).isTrue();
+    }
+
+}
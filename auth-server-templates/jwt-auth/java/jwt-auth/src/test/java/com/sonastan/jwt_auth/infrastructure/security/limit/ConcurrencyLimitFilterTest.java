@@ -0,0 +1,94 @@
+package com.sonastan.jwt_auth.infrastructure.security.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.sonastan.jwt_auth.infrastructure.security.limit.ConcurrencyLimitProperties.Budget;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Runs logins at a limit of ten through the filter, every round with all ten
+ * requests in flight at once.
+ */
+public class ConcurrencyLimitFilterTest {
+
+    private static final int LIMIT = 10;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    Budget budget = new Budget(LIMIT, 2, LIMIT);
+
+    ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+            new ConcurrencyLimitProperties(true, Duration.ofSeconds(1), budget, budget, budget, budget),
+            meterRegistry, (request, response, handler, ex) -> null);
+
+    CyclicBarrier inFlight = new CyclicBarrier(LIMIT);
+
+    @Test
+    void test_fast_rejections_do_not_shrink_the_limit() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(LIMIT)) {
+            runRounds(executor, 3, HttpStatus.OK, 50);
+            // e.g. a flood of throttled logins, answered without hashing a password
+            runRounds(executor, 30, HttpStatus.TOO_MANY_REQUESTS, 0);
+            runRounds(executor, 3, HttpStatus.OK, 50);
+        }
+
+        assertThat(limit()).isEqualTo(LIMIT);
+    }
+
+    @Test
+    void test_shed_requests_further_down_shrink_the_limit() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(LIMIT)) {
+            runRounds(executor, 1, HttpStatus.SERVICE_UNAVAILABLE, 0);
+        }
+
+        assertThat(limit()).isLessThan(LIMIT);
+    }
+
+    private void runRounds(ExecutorService executor, int rounds, HttpStatus status, long millis) throws Exception {
+        FilterChain chain = (request, response) -> {
+            try {
+                inFlight.await(5, TimeUnit.SECONDS);
+                Thread.sleep(millis);
+            } catch (Exception e) {
+                throw new ServletException(e);
+            }
+            ((HttpServletResponse) response).setStatus(status.value());
+        };
+        for (int round = 0; round < rounds; round++) {
+            List<Future<Integer>> responses = new ArrayList<>();
+            for (int i = 0; i < LIMIT; i++) {
+                responses.add(executor.submit(() -> {
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    filter.doFilter(new MockHttpServletRequest("POST", "/v1/auth/login"), response, chain);
+                    return response.getStatus();
+                }));
+            }
+            for (Future<Integer> response : responses) {
+                assertThat(response.get(10, TimeUnit.SECONDS)).isEqualTo(status.value());
+            }
+        }
+    }
+
+    private double limit() {
+        return meterRegistry.get("http.server.concurrency.limit").tag("endpoint", "login").gauge().value();
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.sonastan.jwt_auth.infrastructure.security.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.sonastan.jwt_auth.infrastructure.security.limit.ConcurrencyLimitProperties.Budget;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class VegasConcurrencyLimiterTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    VegasConcurrencyLimiter limiter = new VegasConcurrencyLimiter("test", new Budget(10, 2, 100), meterRegistry);
+
+    @Test
+    void test_rejects_requests_beyond_the_limit() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(meterRegistry.get("http.server.concurrency.rejected").tag("endpoint", "test").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("http.server.concurrency.in-flight").tag("endpoint", "test").gauge().value())
+                .isEqualTo(10);
+
+        limiter.release(0, false);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void test_grows_while_the_response_time_stays_at_its_minimum() {
+        runAtFullLoad(20, TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertThat(limiter.limit()).isGreaterThan(10);
+        assertThat(meterRegistry.get("http.server.concurrency.limit").tag("endpoint", "test").gauge().value())
+                .isEqualTo(limiter.limit());
+    }
+
+    @Test
+    void test_shrinks_when_requests_queue() {
+        runAtFullLoad(1, TimeUnit.MILLISECONDS.toNanos(10));
+
+        runAtFullLoad(5, TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertThat(limiter.limit()).isLessThan(10);
+    }
+
+    @Test
+    void test_shrinks_when_requests_are_shed_further_down_but_not_below_the_minimum() {
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+
+    @Test
+    void test_keeps_the_limit_while_far_fewer_requests_are_in_flight() {
+        limiter.tryAcquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(100), false);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    // fills the limit and completes every request with the given response time
+    private void runAtFullLoad(int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(rttNanos, false);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.sonastan.jwt_auth.infrastructure.security.login;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class SlidingWindowRateLimiterTest {
+
+    AtomicLong nanos = new AtomicLong();
+
+    SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(10, Duration.ofSeconds(10), 100, nanos::get);
+
+    @Test
+    void test_permits_attempts_up_to_the_limit() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("key")).isZero();
+        }
+
+        assertThat(limiter.tryAcquire("key")).isPositive();
+        assertThat(limiter.tryAcquire("other")).isZero();
+    }
+
+    @Test
+    void test_counts_the_overlapping_part_of_the_previous_window() {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("key");
+        }
+
+        // 30% into the next window, 70% of the previous 10 attempts are still counted
+        nanos.set(Duration.ofSeconds(13).toNanos());
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("key")).isZero();
+        }
+        // 10% later only 6 of the previous attempts are counted, which leaves room for one more
+        assertThat(limiter.tryAcquire("key")).isCloseTo(Duration.ofSeconds(1), Duration.ofMillis(1));
+    }
+
+    @Test
+    void test_retry_after_reaches_into_the_next_window_when_the_current_one_is_full() {
+        nanos.set(Duration.ofSeconds(5).toNanos());
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("key");
+        }
+
+        // 5s until the window ends, then 10% of the next window until 9 of the 10 attempts remain
+        assertThat(limiter.tryAcquire("key")).isCloseTo(Duration.ofSeconds(6), Duration.ofMillis(1));
+
+        nanos.set(Duration.ofMillis(11_001).toNanos());
+
+        assertThat(limiter.tryAcquire("key")).isZero();
+    }
+
+    @Test
+    void test_forgets_attempts_older_than_two_windows() {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("key");
+        }
+
+        nanos.set(Duration.ofSeconds(20).toNanos());
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("key")).isZero();
+        }
+    }
+
+    @Test
+    void test_concurrent_attempts_never_exceed_the_limit() throws Exception {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(100, Duration.ofSeconds(10), 100,
+                nanos::get);
+        List<Future<Duration>> attempts;
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            attempts = IntStream.range(0, 1000).mapToObj(i -> executor.submit(() -> limiter.tryAcquire("key")))
+                    .toList();
+        }
+
+        long permitted = 0;
+        for (Future<Duration> attempt : attempts) {
+            if (attempt.get().isZero()) {
+                permitted++;
+            }
+        }
+        assertThat(permitted).isEqualTo(100);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.sonastan.jwt_auth.infrastructure.security.password;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocalCompromisedPasswordCheckerTest {
+
+    @TempDir
+    Path dir;
+
+    Path dataset;
+
+    Path index;
+
+    private static String sha1(String password) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().withUpperCase().formatHex(digest);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataset = dir.resolve("pwned.txt");
+        index = dir.resolve("pwned.txt.idx");
+        // not sorted by hash, like a hand picked subset
+        Files.write(dataset, List.of(
+                sha1("password") + ":9545824",
+                sha1("1234") + ":2502",
+                sha1("qwerty") + ":3946737",
+                sha1("1234") + ":2502"));
+    }
+
+    @Test
+    void test_listed_passwords_are_compromised() {
+        LocalCompromisedPasswordChecker checker = new LocalCompromisedPasswordChecker(dataset, index);
+
+        assertThat(checker.size()).isEqualTo(3);
+        assertThat(checker.check("1234").isCompromised()).isTrue();
+        assertThat(checker.check("password").isCompromised()).isTrue();
+        assertThat(checker.check("qwerty").isCompromised()).isTrue();
+        assertThat(checker.check("UserUser1234!").isCompromised()).isFalse();
+        assertThat(checker.check(null).isCompromised()).isFalse();
+    }
+
+    @Test
+    void test_index_is_rebuilt_when_dataset_changes() throws Exception {
+        new LocalCompromisedPasswordChecker(dataset, index);
+        Files.write(dataset, List.of(sha1("UserUser1234!").toLowerCase()));
+        Files.setLastModifiedTime(dataset, FileTime.from(Instant.now().plusSeconds(60)));
+
+        LocalCompromisedPasswordChecker checker = new LocalCompromisedPasswordChecker(dataset, index);
+
+        assertThat(checker.size()).isEqualTo(1);
+        assertThat(checker.check("UserUser1234!").isCompromised()).isTrue();
+        assertThat(checker.check("1234").isCompromised()).isFalse();
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.sonastan.jwt_auth.infrastructure.security.password;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.sonastan.jwt_auth.infrastructure.constants.PasswordHashAlgorithm;
+
+public class PasswordHashCalibratorTest {
+
+    @Test
+    void test_bcrypt_without_calibration_uses_the_default_cost() {
+        PasswordEncoder encoder = PasswordHashCalibrator.createPasswordEncoder(PasswordHashAlgorithm.BCRYPT,
+                Duration.ZERO);
+
+        String encoded = encoder.encode("password");
+
+        assertThat(encoded).startsWith("{bcrypt}$2a$10$");
+        assertThat(encoder.matches("password", encoded)).isTrue();
+        assertThat(encoder.upgradeEncoding(encoded)).isFalse();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+    }
+
+    @Test
+    void test_argon2_upgrades_other_algorithms() {
+        PasswordEncoder encoder = PasswordHashCalibrator.createPasswordEncoder(PasswordHashAlgorithm.ARGON2,
+                Duration.ZERO);
+        String bcrypt = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password");
+
+        String encoded = encoder.encode("password");
+
+        assertThat(encoded).startsWith("{argon2@SpringSecurity_v5_8}");
+        assertThat(encoder.matches("password", encoded)).isTrue();
+        assertThat(encoder.upgradeEncoding(encoded)).isFalse();
+        assertThat(encoder.matches("password", bcrypt)).isTrue();
+        assertThat(encoder.upgradeEncoding(bcrypt)).isTrue();
+    }
+
+    @Test
+    void test_legacy_formats_still_match() {
+        PasswordEncoder encoder = PasswordHashCalibrator.createPasswordEncoder(PasswordHashAlgorithm.BCRYPT,
+                Duration.ZERO);
+
+        assertThat(encoder.matches("password", "{noop}password")).isTrue();
+        assertThat(encoder.upgradeEncoding("{noop}password")).isTrue();
+    }
+
+    @Test
+    void test_calibration_raises_the_cost_for_a_longer_target() {
+        PasswordEncoder encoder = PasswordHashCalibrator.createPasswordEncoder(PasswordHashAlgorithm.BCRYPT,
+                Duration.ofMinutes(1));
+
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(10).encode("password"))).isTrue();
+    }
+
+}
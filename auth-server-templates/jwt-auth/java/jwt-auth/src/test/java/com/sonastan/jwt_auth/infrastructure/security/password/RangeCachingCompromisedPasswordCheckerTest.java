@@ -0,0 +1,143 @@
+package com.sonastan.jwt_auth.infrastructure.security.password;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sonastan.jwt_auth.infrastructure.constants.FailurePolicy;
+import com.sonastan.jwt_auth.infrastructure.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RangeCachingCompromisedPasswordCheckerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private RangeCachingCompromisedPasswordChecker checker;
+
+    private static String sha1(String password) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().withUpperCase().formatHex(digest);
+    }
+
+    private static CompromisedPasswordProperties.Remote properties(int maxConcurrentRequests, int queueCapacity,
+            FailurePolicy failurePolicy) {
+        return new CompromisedPasswordProperties.Remote(URI.create("http://localhost/range/"), 100,
+                Duration.ofHours(1), maxConcurrentRequests, queueCapacity, Duration.ofMillis(200), failurePolicy);
+    }
+
+    private RangeCachingCompromisedPasswordChecker checker(Function<String, String> rangeClient,
+            CompromisedPasswordProperties.Remote properties) {
+        checker = new RangeCachingCompromisedPasswordChecker(rangeClient, properties, meterRegistry);
+        return checker;
+    }
+
+    private Function<String, String> blockingClient() {
+        return prefix -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "";
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (checker != null) {
+            checker.close();
+        }
+    }
+
+    @Test
+    void test_range_is_fetched_once_per_prefix() throws Exception {
+        String hash = sha1("password");
+        AtomicInteger requests = new AtomicInteger();
+        RangeCachingCompromisedPasswordChecker checker = checker(prefix -> {
+            requests.incrementAndGet();
+            assertThat(prefix).isEqualTo(hash.substring(0, 5));
+            return hash.substring(5) + ":9545824\r\n" + "0000000000000000000000000000000000A:0";
+        }, properties(2, 2, FailurePolicy.FAIL_CLOSED));
+
+        assertThat(checker.check("password").isCompromised()).isTrue();
+        assertThat(checker.check("password").isCompromised()).isTrue();
+        assertThat(requests).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", RangeCachingCompromisedPasswordChecker.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void test_padding_entries_are_not_compromised() throws Exception {
+        String hash = sha1("password");
+        RangeCachingCompromisedPasswordChecker checker = checker(prefix -> hash.substring(5) + ":0",
+                properties(2, 2, FailurePolicy.FAIL_CLOSED));
+
+        assertThat(checker.check("password").isCompromised()).isFalse();
+    }
+
+    @Test
+    void test_timeout_fails_closed() {
+        RangeCachingCompromisedPasswordChecker checker = checker(blockingClient(),
+                properties(2, 2, FailurePolicy.FAIL_CLOSED));
+
+        assertThatThrownBy(() -> checker.check("password"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .extracting("retryAfter").isEqualTo(Duration.ofMillis(200));
+        assertThat(meterRegistry.get("hibp.failures").tag("reason", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void test_timeout_fails_open() {
+        RangeCachingCompromisedPasswordChecker checker = checker(blockingClient(),
+                properties(2, 2, FailurePolicy.FAIL_OPEN));
+
+        assertThat(checker.check("password").isCompromised()).isFalse();
+    }
+
+    @Test
+    void test_checks_are_rejected_when_the_bulkhead_is_full() {
+        RangeCachingCompromisedPasswordChecker checker = checker(blockingClient(),
+                properties(1, 1, FailurePolicy.FAIL_OPEN));
+
+        // different prefixes, so every check needs its own request
+        checker.check("password");
+        checker.check("qwerty");
+        checker.check("1234");
+
+        assertThat(meterRegistry.get("hibp.failures").tag("reason", "timeout").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("hibp.failures").tag("reason", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void test_failed_requests_are_not_cached() throws Exception {
+        String hash = sha1("password");
+        AtomicInteger requests = new AtomicInteger();
+        RangeCachingCompromisedPasswordChecker checker = checker(prefix -> {
+            if (requests.incrementAndGet() == 1) {
+                throw new IllegalStateException("API unavailable");
+            }
+            return hash.substring(5) + ":9545824";
+        }, properties(2, 2, FailurePolicy.FAIL_CLOSED));
+
+        assertThatThrownBy(() -> checker.check("password")).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(checker.check("password").isCompromised()).isTrue();
+        assertThat(requests).hasValue(2);
+    }
+
+}
@@ -3,12 +3,17 @@ package com.sonastan.jwt_auth.infrastructure.security.user;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.sonastan.jwt_auth.TestcontainersConfiguration;
 import com.sonastan.jwt_auth.domain.model.Role;
@@ -30,6 +35,18 @@ public class UserDetailsServiceImplTest {
     @Autowired
     RoleRepository roleRepository;
 
+    @Autowired
+    AuthenticationManager authenticationManager;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
     @Test
     void test_load_user_by_username_successfull() {
         userRepository.save(new User("test", "test@test.com", "password", "Test", "User",
@@ -48,4 +65,26 @@ public class UserDetailsServiceImplTest {
         assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown"));
     }
 
+    @Test
+    void test_outdated_password_hash_is_upgraded_after_login() throws Exception {
+        String outdatedHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password");
+        User user = userRepository.save(new User("upgrade", "upgrade@test.com", outdatedHash, "Test", "User",
+                roleRepository.save(new Role(UserRole.ROLE_USER))));
+
+        authenticationManager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("upgrade", "password"));
+
+        String password = outdatedHash;
+        for (int i = 0; i < 100 && password.equals(outdatedHash); i++) {
+            Thread.sleep(100);
+            userDetailsService.flushPasswordUpgrades();
+            password = userRepository.findByUserUuid(user.getUserUuid()).orElseThrow().getPassword();
+        }
+        assertThat(password).isNotEqualTo(outdatedHash);
+        assertThat(passwordEncoder.upgradeEncoding(password)).isFalse();
+        assertThat(passwordEncoder.matches("password", password)).isTrue();
+
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
 }
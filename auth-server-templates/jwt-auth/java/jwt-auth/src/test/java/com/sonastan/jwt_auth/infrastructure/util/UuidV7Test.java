@@ -0,0 +1,53 @@
+package com.sonastan.jwt_auth.infrastructure.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class UuidV7Test {
+
+    // compares unsigned like PostgreSQL's uuid type, UUID.compareTo compares signed longs
+    private static final Comparator<UUID> UNSIGNED = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    @Test
+    void test_generated_uuid_is_version_7_with_rfc_variant() {
+        UUID uuid = UuidV7.generate();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(UUID.fromString(uuid.toString())).isEqualTo(uuid);
+    }
+
+    @Test
+    void test_generated_uuid_carries_creation_time() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.generate();
+
+        // the counter may have run the timestamp slightly ahead of the clock
+        assertThat(UuidV7.timestamp(uuid)).isBetween(before, System.currentTimeMillis() + 1_000);
+    }
+
+    @Test
+    void test_generated_uuids_are_strictly_increasing() {
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            uuids.add(UuidV7.generate());
+        }
+
+        assertThat(uuids).isSortedAccordingTo(UNSIGNED).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void test_timestamp_of_random_uuid_is_rejected() {
+        assertThatThrownBy(() -> UuidV7.timestamp(UUID.randomUUID())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.sonastan.jwt_auth.interfaces.rest.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.application.service.JwtService;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.repository.ProfileRepository;
+import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.interfaces.rest.dto.user.UserImportResponseDto;
+
+@SpringBootTest(properties = "user-import.chunk-size=2")
+@Import(TestcontainersConfiguration.class)
+@AutoConfigureMockMvc
+public class AdminUserControllerTest {
+
+        // the lowest work factor keeps the fixtures fast, imported hashes are kept as they are
+        private static final PasswordEncoder FIXTURE_ENCODER = new BCryptPasswordEncoder(4);
+
+        private static final String ALICE_PASSWORD = "{bcrypt}" + FIXTURE_ENCODER.encode("Alice1234!");
+
+        private static final String BOB_PASSWORD = "{bcrypt}" + FIXTURE_ENCODER.encode("Bob12345!");
+
+        private static final String NDJSON = """
+                        {"username":"alice","email":"alice@test.com","password":"%s","firstname":"Alice","lastname":"Smith"}
+                        {"username":"bob","email":"bob@test.com","password":"%s","firstname":"Bob","lastname":"Jones","role":"ROLE_ADMIN"}
+
+                        {"username":"carol","email":"carol@test.com","password":"plaintext","firstname":"Carol","lastname":"White"}
+                        {"username":"dave","email":"dave@test.com","password":"{noop}Dave1234!","firstname":"Dave","lastname":"Brown"}
+                        not json
+                        """.formatted(ALICE_PASSWORD, BOB_PASSWORD);
+
+        private static final String CSV = """
+                        username,email,password,firstname,lastname
+                        alice,alice@test.com,%s,Alice,"Smith, Jr."
+                        bob,bob@test.com,%s,Bob,"Jo""nes"
+                        carol,carol@test.com,%s,Carol
+                        """.formatted(ALICE_PASSWORD, BOB_PASSWORD, ALICE_PASSWORD);
+
+        @Autowired
+        MockMvc mvc;
+
+        ObjectMapper mapper = new ObjectMapper();
+
+        @Autowired
+        UserRepository userRepository;
+
+        @Autowired
+        RoleRepository roleRepository;
+
+        @Autowired
+        ProfileRepository profileRepository;
+
+        @Autowired
+        PasswordEncoder passwordEncoder;
+
+        @Autowired
+        JwtService jwtService;
+
+        @BeforeEach
+        void setUp() {
+                profileRepository.deleteAll();
+                userRepository.deleteAll();
+                roleRepository.deleteAll();
+                roleRepository.save(new Role(UserRole.ROLE_USER));
+                roleRepository.save(new Role(UserRole.ROLE_ADMIN));
+        }
+
+        @AfterEach
+        void tearDown() {
+                profileRepository.deleteAll();
+                userRepository.deleteAll();
+                roleRepository.deleteAll();
+        }
+
+        private String bearer(UserRole role) {
+                UserDetails userDetails = User.withUsername("admin")
+                                .password("{noop}Admin1234!")
+                                .authorities(role.name())
+                                .build();
+                return "Bearer " + jwtService.generateAccessToken(userDetails).getTokenValue();
+        }
+
+        private UserImportResponseDto importUsers(String contentType, String content) throws Exception {
+                MvcResult res = mvc.perform(post("/v1/admin/users/import")
+                                .header("Authorization", bearer(UserRole.ROLE_ADMIN))
+                                .contentType(contentType)
+                                .content(content))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                return mapper.readValue(res.getResponse().getContentAsString(), UserImportResponseDto.class);
+        }
+
+        private String exportUsers(String accept) throws Exception {
+                MvcResult res = mvc.perform(get("/v1/admin/users/export")
+                                .header("Authorization", bearer(UserRole.ROLE_ADMIN))
+                                .accept(accept))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                return mvc.perform(asyncDispatch(res))
+                                .andExpect(status().isOk())
+                                .andReturn()
+                                .getResponse()
+                                .getContentAsString();
+        }
+
+        @Test
+        void test_import_ndjson_inserts_valid_users_and_rejects_invalid_lines() throws Exception {
+                UserImportResponseDto response = importUsers(MediaType.APPLICATION_NDJSON_VALUE, NDJSON);
+
+                assertThat(response).isEqualTo(new UserImportResponseDto(2, 3));
+                assertThat(userRepository.count()).isEqualTo(2);
+                assertThat(userRepository.findByUsername("dave")).isEmpty();
+                assertThat(profileRepository.count()).isEqualTo(2);
+                String password = userRepository.findByUsername("alice").orElseThrow().getPassword();
+                assertThat(passwordEncoder.matches("Alice1234!", password)).isTrue();
+        }
+
+        @Test
+        void test_import_csv_reads_quoted_fields_and_rejects_incomplete_lines() throws Exception {
+                UserImportResponseDto response = importUsers(AdminUserController.TEXT_CSV_VALUE, CSV);
+
+                assertThat(response).isEqualTo(new UserImportResponseDto(2, 1));
+                assertThat(userRepository.findByUsername("alice").orElseThrow().getLastname()).isEqualTo("Smith, Jr.");
+                assertThat(userRepository.findByUsername("bob").orElseThrow().getLastname()).isEqualTo("Jo\"nes");
+                assertThat(userRepository.findByUsername("bob").orElseThrow().getPassword()).isEqualTo(BOB_PASSWORD);
+        }
+
+        @Test
+        void test_import_rejects_existing_users() throws Exception {
+                importUsers(MediaType.APPLICATION_NDJSON_VALUE, NDJSON);
+
+                UserImportResponseDto response = importUsers(MediaType.APPLICATION_NDJSON_VALUE, NDJSON);
+
+                assertThat(response).isEqualTo(new UserImportResponseDto(0, 5));
+                assertThat(userRepository.count()).isEqualTo(2);
+        }
+
+        @Test
+        void test_export_ndjson_can_be_imported_again() throws Exception {
+                importUsers(MediaType.APPLICATION_NDJSON_VALUE, NDJSON);
+                UUID aliceUuid = userRepository.findByUsername("alice").orElseThrow().getUserUuid();
+                UUID bobUuid = userRepository.findByUsername("bob").orElseThrow().getUserUuid();
+
+                String export = exportUsers(MediaType.APPLICATION_NDJSON_VALUE);
+
+                assertThat(export.lines()).hasSize(2);
+                assertThat(export).contains("\"username\":\"alice\"", "\"password\":\"" + ALICE_PASSWORD + "\"",
+                                "\"role\":\"ROLE_ADMIN\"", "\"userUuid\":\"" + bobUuid + "\"");
+                tearDown();
+                setUp();
+                assertThat(importUsers(MediaType.APPLICATION_NDJSON_VALUE, export))
+                                .isEqualTo(new UserImportResponseDto(2, 0));
+                com.sonastan.jwt_auth.domain.model.User alice = userRepository.findByUsername("alice").orElseThrow();
+                com.sonastan.jwt_auth.domain.model.User bob = userRepository.findByUsername("bob").orElseThrow();
+                assertThat(alice.getUserUuid()).isEqualTo(aliceUuid);
+                assertThat(alice.getRole().getRolename()).isEqualTo(UserRole.ROLE_USER);
+                assertThat(bob.getUserUuid()).isEqualTo(bobUuid);
+                assertThat(bob.getRole().getRolename()).isEqualTo(UserRole.ROLE_ADMIN);
+        }
+
+        @Test
+        void test_export_csv_starts_with_header() throws Exception {
+                importUsers(AdminUserController.TEXT_CSV_VALUE, CSV);
+
+                String export = exportUsers(AdminUserController.TEXT_CSV_VALUE);
+
+                assertThat(export.lines()).hasSize(3)
+                                .first().isEqualTo("username,email,password,firstname,lastname,role,userUuid");
+                assertThat(export).contains("alice,alice@test.com," + ALICE_PASSWORD + ",Alice,\"Smith, Jr.\",ROLE_USER,"
+                                + userRepository.findByUsername("alice").orElseThrow().getUserUuid());
+        }
+
+        @Test
+        void test_import_status_is_403_if_user_is_not_admin() throws Exception {
+                mvc.perform(post("/v1/admin/users/import")
+                                .header("Authorization", bearer(UserRole.ROLE_USER))
+                                .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                                .content(NDJSON))
+                                .andExpect(status().isForbidden());
+                assertThat(userRepository.count()).isZero();
+        }
+
+        @Test
+        void test_export_status_is_401_without_token() throws Exception {
+                mvc.perform(get("/v1/admin/users/export")
+                                .accept(MediaType.APPLICATION_NDJSON_VALUE))
+                                .andExpect(status().isUnauthorized());
+        }
+
+}
@@ -1,9 +1,11 @@
 package com.sonastan.jwt_auth.interfaces.rest.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -24,6 +26,7 @@ import com.sonastan.jwt_auth.application.service.JwtService;
 import com.sonastan.jwt_auth.application.service.UserService;
 import com.sonastan.jwt_auth.domain.model.Role;
 import com.sonastan.jwt_auth.domain.model.User;
+import com.sonastan.jwt_auth.domain.repository.RevokedTokenRepository;
 import com.sonastan.jwt_auth.domain.repository.RoleRepository;
 import com.sonastan.jwt_auth.domain.repository.UserRepository;
 import com.sonastan.jwt_auth.infrastructure.constants.JwtType;
@@ -55,6 +58,9 @@ public class AuthControllerTest {
         @Autowired
         UserRepository userRepository;
 
+        @Autowired
+        RevokedTokenRepository revokedTokenRepository;
+
         @Test
         void test_csrf_is_ok() throws Exception {
                 mvc.perform(get("/v1/auth/csrf"))
@@ -102,6 +108,33 @@ public class AuthControllerTest {
                                 .andExpect(status().isBadRequest());
         }
 
+        @Test
+        void test_login_status_is_429_after_too_many_attempts_for_a_username() throws Exception {
+                String requestBody = mapper.writeValueAsString(new LoginRequestDto("throttled", "wrongPassword"));
+                for (int i = 0; i < 10; i++) {
+                        mvc.perform(post("/v1/auth/login")
+                                        .with(csrf())
+                                        .with(request -> {
+                                                request.setRemoteAddr("192.0.2.1");
+                                                return request;
+                                        })
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(requestBody))
+                                        .andExpect(status().isBadRequest());
+                }
+
+                mvc.perform(post("/v1/auth/login")
+                                .with(csrf())
+                                .with(request -> {
+                                        request.setRemoteAddr("192.0.2.2");
+                                        return request;
+                                })
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                                .andExpect(status().isTooManyRequests())
+                                .andExpect(header().exists("Retry-After"));
+        }
+
         @Test
         void test_refresh_status_is_200_if_successful() throws Exception {
                 userRepository.deleteAll();
@@ -123,6 +156,38 @@ public class AuthControllerTest {
                                 RefreshResponseDto.class);
                 jwtService.validateToken(responseDto.accessToken(), JwtType.ACCESS);
                 jwtService.validateToken(refreshToken.getTokenValue(), JwtType.REFRESH);
+                Jwt rotatedRefreshToken = jwtService.validateToken(responseDto.refreshToken(), JwtType.REFRESH);
+                assertThat(rotatedRefreshToken.getId()).isNotEqualTo(refreshToken.getId());
+                userRepository.deleteAll();
+                roleRepository.deleteAll();
+        }
+
+        @Test
+        void test_refresh_status_is_401_if_refresh_token_is_reused() throws Exception {
+                userRepository.deleteAll();
+                roleRepository.deleteAll();
+                roleRepository.save(new Role(UserRole.ROLE_USER));
+                UserDetails user = userService.registerUser("username", "UserUser1234!", "UserUser1234!", "email",
+                                "firstname",
+                                "lastname");
+                Jwt refreshToken = jwtService.generateRefreshToken(user);
+
+                MvcResult res = mvc.perform(post("/v1/auth/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header("Authorization", "Bearer " + refreshToken.getTokenValue()))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                mvc.perform(post("/v1/auth/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header("Authorization", "Bearer " + refreshToken.getTokenValue()))
+                                .andExpect(status().isUnauthorized());
+
+                RefreshResponseDto responseDto = mapper.readValue(res.getResponse().getContentAsString(),
+                                RefreshResponseDto.class);
+                mvc.perform(post("/v1/auth/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header("Authorization", "Bearer " + responseDto.refreshToken()))
+                                .andExpect(status().isOk());
                 userRepository.deleteAll();
                 roleRepository.deleteAll();
         }
@@ -137,6 +202,20 @@ public class AuthControllerTest {
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .header("Authorization", "Bearer " + refreshToken.getTokenValue()))
                                 .andExpect(status().isNotFound());
+                // a failed refresh does not use up the token
+                assertThat(revokedTokenRepository.existsByJti(refreshToken.getId())).isFalse();
+        }
+
+        @Test
+        void test_refresh_status_is_401_if_access_token_is_used() throws Exception {
+                Jwt accessToken = jwtService.generateAccessToken(
+                                UserDetailsImpl.build(new User("null", "null", "null", "null", "null",
+                                                new Role(UserRole.ROLE_USER))));
+
+                mvc.perform(post("/v1/auth/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header("Authorization", "Bearer " + accessToken.getTokenValue()))
+                                .andExpect(status().isUnauthorized());
         }
 
         @Test
@@ -0,0 +1,133 @@
+package com.sonastan.jwt_auth.interfaces.rest.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.application.service.UserService;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.interfaces.rest.dto.auth.LoginRequestDto;
+
+/**
+ * Logins with a concurrency limit of one. The first login is held while its
+ * password is verified, so the second one arrives at the limit.
+ */
+@SpringBootTest(properties = { "concurrency-limit.login.initial-limit=1", "concurrency-limit.login.min-limit=1",
+        "concurrency-limit.login.max-limit=1" })
+@Import(TestcontainersConfiguration.class)
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+public class ConcurrencyLimitTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    ObjectMapper mapper = new ObjectMapper();
+
+    @MockitoSpyBean
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    CountDownLatch verifying = new CountDownLatch(1);
+
+    CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+        userService.registerUser("limited", "UserUser1234!", "UserUser1234!", "limited@test.com", "firstname",
+                "lastname");
+        doAnswer(invocation -> {
+            verifying.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).matches(any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void test_login_beyond_the_limit_is_shed_with_503() throws Exception {
+        String requestBody = mapper.writeValueAsString(new LoginRequestDto("limited", "UserUser1234!"));
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<Integer> first = executor.submit(() -> mvc.perform(post("/v1/auth/login")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(requestBody))
+                    .andReturn()
+                    .getResponse()
+                    .getStatus());
+            assertThat(verifying.await(10, TimeUnit.SECONDS)).isTrue();
+
+            mvc.perform(post("/v1/auth/login")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(requestBody))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.title").value("Service Unavailable"));
+            // other endpoints have their own budget
+            mvc.perform(get("/v1/auth/csrf"))
+                    .andExpect(status().isOk());
+
+            release.countDown();
+            assertThat(first.get()).isEqualTo(200);
+        }
+
+        String metrics = mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(metrics).contains("http_server_concurrency_limit{endpoint=\"login\"",
+                "http_server_concurrency_in_flight{endpoint=\"login\"",
+                "http_server_concurrency_rejected_total{endpoint=\"login\"");
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.sonastan.jwt_auth.interfaces.rest.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.application.service.UserService;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.interfaces.rest.dto.auth.LoginRequestDto;
+import com.sonastan.jwt_auth.interfaces.rest.dto.user.CreateUserDto;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Logins and registrations on a pool of two connections. The user cache is
+ * disabled, so every login loads the user from the database.
+ */
+@SpringBootTest(properties = { "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.minimum-idle=2", "user-cache.maximum-size=0",
+        // keeps the scheduled jobs from holding connections while they are counted
+        "jwt.revocation.sync-interval=1h", "password-hashing.upgrade-flush-interval=1h",
+        // all logins are made by one user from one address, and none may be shed
+        "login-throttle.enabled=false", "concurrency-limit.enabled=false" })
+@Import(TestcontainersConfiguration.class)
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+public class ConnectionPoolTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    ObjectMapper mapper = new ObjectMapper();
+
+    @MockitoSpyBean
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    HikariPoolMXBean pool;
+
+    // connections in use whenever a password was hashed or verified
+    Queue<Integer> activeConnectionsWhileHashing = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+        userService.registerUser("username", "UserUser1234!", "UserUser1234!", "user@test.com", "firstname",
+                "lastname");
+        pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        doAnswer(invocation -> {
+            activeConnectionsWhileHashing.add(pool.getActiveConnections());
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).matches(any(), any());
+        doAnswer(invocation -> {
+            activeConnectionsWhileHashing.add(pool.getActiveConnections());
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).encode(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    private int login() throws Exception {
+        return mvc.perform(post("/v1/auth/login")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new LoginRequestDto("username", "UserUser1234!"))))
+                .andReturn()
+                .getResponse()
+                .getStatus();
+    }
+
+    @Test
+    void test_no_connection_is_held_while_password_is_hashed() throws Exception {
+        assertThat(login()).isEqualTo(200);
+        mvc.perform(post("/v1/user/create")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new CreateUserDto("newUsername", "new@test.com", "firstname",
+                        "lastname", "UserUser1234!", "UserUser1234!"))))
+                .andExpect(status().isCreated());
+
+        assertThat(activeConnectionsWhileHashing).hasSizeGreaterThanOrEqualTo(2).containsOnly(0);
+    }
+
+    @Test
+    void test_small_pool_serves_concurrent_logins_without_timeouts() throws Exception {
+        List<Future<Integer>> logins;
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            logins = IntStream.range(0, 32).mapToObj(i -> executor.submit(this::login)).toList();
+        }
+
+        for (Future<Integer> login : logins) {
+            assertThat(login.get()).isEqualTo(200);
+        }
+        assertThat(activeConnectionsWhileHashing).hasSizeGreaterThanOrEqualTo(32).containsOnly(0);
+        assertThat(meterRegistry.get("hikaricp.connections.timeout").tag("pool", "jwt-auth").counter().count())
+                .isZero();
+        assertThat(meterRegistry.get("hikaricp.connections.acquire").tag("pool", "jwt-auth").timer().count())
+                .isGreaterThanOrEqualTo(32);
+    }
+
+    @Test
+    void test_pool_metrics_are_exported_with_histograms() throws Exception {
+        login();
+
+        String metrics = mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(metrics).contains("hikaricp_connections_pending{pool=\"jwt-auth\"",
+                "hikaricp_connections_acquire_seconds_bucket{", "hikaricp_connections_usage_seconds_bucket{",
+                "hikaricp_connections_timeout_total{pool=\"jwt-auth\"");
+    }
+
+}
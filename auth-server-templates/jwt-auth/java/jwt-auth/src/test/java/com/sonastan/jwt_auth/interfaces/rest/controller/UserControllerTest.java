@@ -9,6 +9,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.UUID;
+
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +35,8 @@ import com.sonastan.jwt_auth.domain.repository.RoleRepository;
 import com.sonastan.jwt_auth.domain.repository.UserRepository;
 import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
 import com.sonastan.jwt_auth.infrastructure.exception.NotFoundException;
+import com.sonastan.jwt_auth.infrastructure.security.user.UserDetailsImpl;
+import com.sonastan.jwt_auth.interfaces.rest.dto.user.ChangePasswordDto;
 import com.sonastan.jwt_auth.interfaces.rest.dto.user.CreateUserDto;
 import com.sonastan.jwt_auth.interfaces.rest.dto.user.UpdateUserDto;
 import com.sonastan.jwt_auth.interfaces.rest.dto.user.UserResponseDto;
@@ -86,7 +90,7 @@ public class UserControllerTest {
 
                 UserResponseDto userResponse = mapper.readValue(res.getResponse().getContentAsString(),
                                 UserResponseDto.class);
-                UserDetails userByUuid = userService.loadUserByUuid(userResponse.userUuid());
+                UserDetails userByUuid = userService.loadUserByUuid(UUID.fromString(userResponse.userUuid()));
                 assertThat(userByUuid).isNotNull();
                 assertThat(userByUuid.getUsername()).isEqualTo(createUserDto.username());
 
@@ -114,6 +118,39 @@ public class UserControllerTest {
                                 .andExpect(status().isForbidden());
         }
 
+        @Test
+        void test_change_password_status_is_204_and_revokes_refresh_tokens() throws Exception {
+                UserDetails registerUser = userService.registerUser("username", "UserUser1234!", "UserUser1234!",
+                                "user@test.com",
+                                "firstname", "lastname");
+                Jwt accessToken = jwtService.generateAccessToken(registerUser);
+                Jwt refreshToken = jwtService.generateRefreshToken(registerUser);
+                mvc.perform(put("/v1/user/password")
+                                .header("Authorization", "Bearer " + accessToken.getTokenValue())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(
+                                                new ChangePasswordDto("UserUser1234!", "NewUser1234!", "NewUser1234!"))))
+                                .andExpect(status().isNoContent());
+
+                mvc.perform(post("/v1/auth/refresh")
+                                .header("Authorization", "Bearer " + refreshToken.getTokenValue()))
+                                .andExpect(status().isUnauthorized());
+        }
+
+        @Test
+        void test_change_password_status_is_400_if_old_password_is_wrong() throws Exception {
+                UserDetails registerUser = userService.registerUser("username", "UserUser1234!", "UserUser1234!",
+                                "user@test.com",
+                                "firstname", "lastname");
+                Jwt accessToken = jwtService.generateAccessToken(registerUser);
+                mvc.perform(put("/v1/user/password")
+                                .header("Authorization", "Bearer " + accessToken.getTokenValue())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(
+                                                new ChangePasswordDto("WrongUser1234!", "NewUser1234!", "NewUser1234!"))))
+                                .andExpect(status().isBadRequest());
+        }
+
         @Test
         void test_delete_current_user_status_is_204_if_successful() throws Exception {
                 UserDetails registerUser = userService.registerUser("username", "UserUser1234!", "UserUser1234!",
@@ -124,7 +161,7 @@ public class UserControllerTest {
                                 .header("Authorization", "Bearer " + jwt.getTokenValue()))
                                 .andExpect(status().isNoContent());
                 assertThrows(NotFoundException.class,
-                                () -> userService.loadUserByUuid(registerUser.getUsername()));
+                                () -> userService.loadUserByUuid(((UserDetailsImpl) registerUser).getUserUuid()));
         }
 
         @Test
@@ -156,6 +193,17 @@ public class UserControllerTest {
                 assertThat(userResponse.userUuid()).isNotEmpty();
         }
 
+        @Test
+        void test_get_current_user_status_is_401_if_refresh_token_is_used() throws Exception {
+                UserDetails registerUser = userService.registerUser("username", "UserUser1234!", "UserUser1234!",
+                                "user@test.com",
+                                "firstname", "lastname");
+                Jwt jwt = jwtService.generateRefreshToken(registerUser);
+                mvc.perform(get("/v1/user")
+                                .header("Authorization", "Bearer " + jwt.getTokenValue()))
+                                .andExpect(status().isUnauthorized());
+        }
+
         @Test
         void test_get_current_user_status_is_404_if_user_not_found() throws Exception {
                 UserDetails registerUser = userService.registerUser("username", "UserUser1234!", "UserUser1234!",
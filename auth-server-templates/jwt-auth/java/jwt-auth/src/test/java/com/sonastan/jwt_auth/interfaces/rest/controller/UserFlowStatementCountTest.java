@@ -0,0 +1,206 @@
+package com.sonastan.jwt_auth.interfaces.rest.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonastan.jwt_auth.TestcontainersConfiguration;
+import com.sonastan.jwt_auth.application.service.JwtService;
+import com.sonastan.jwt_auth.application.service.UserService;
+import com.sonastan.jwt_auth.domain.model.Role;
+import com.sonastan.jwt_auth.domain.repository.OutboxEventRepository;
+import com.sonastan.jwt_auth.domain.repository.ProfileRepository;
+import com.sonastan.jwt_auth.domain.repository.RoleRepository;
+import com.sonastan.jwt_auth.domain.repository.UserRepository;
+import com.sonastan.jwt_auth.infrastructure.constants.UserRole;
+import com.sonastan.jwt_auth.infrastructure.security.user.UserDetailsImpl;
+import com.sonastan.jwt_auth.interfaces.rest.dto.auth.LoginRequestDto;
+import com.sonastan.jwt_auth.interfaces.rest.dto.user.CreateUserDto;
+import com.sonastan.jwt_auth.interfaces.rest.dto.user.UpdateUserDto;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the SQL statements of each user flow with the user cache disabled, so
+ * an eager association or an N+1 query shows up as a failing test.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "user-cache.maximum-size=0",
+        // keeps the scheduled jobs out of the counted statements and transactions
+        "jwt.revocation.sync-interval=1h", "password-hashing.upgrade-flush-interval=1h", "outbox.poll-interval=1h",
+        "user-activity.flush-interval=1h", "jwt.refresh.version-sync-interval=1h" })
+@Import(TestcontainersConfiguration.class)
+@AutoConfigureMockMvc
+public class UserFlowStatementCountTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    ObjectMapper mapper = new ObjectMapper();
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    JwtService jwtService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    ProfileRepository profileRepository;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    UserDetailsImpl user;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        profileRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        roleRepository.save(new Role(UserRole.ROLE_USER));
+        user = (UserDetailsImpl) userService.registerUser("username", "UserUser1234!", "UserUser1234!", "email",
+                "firstname", "lastname");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+        profileRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void test_register_user_inserts_user_and_outbox_event_only() throws Exception {
+        mvc.perform(post("/v1/user/create")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new CreateUserDto("newUsername", "new@test.com", "firstname",
+                        "lastname", "UserUser1234!", "UserUser1234!"))))
+                .andExpect(status().isCreated());
+
+        // the profile is created later by the outbox dispatcher
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2);
+        assertThat(statistics.getTransactionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_register_user_with_existing_username_runs_one_statement() throws Exception {
+        mvc.perform(post("/v1/user/create")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new CreateUserDto("username", "new@test.com", "firstname",
+                        "lastname", "UserUser1234!", "UserUser1234!"))))
+                .andExpect(status().isBadRequest());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void test_login_runs_one_statement() throws Exception {
+        mvc.perform(post("/v1/auth/login")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new LoginRequestDto("username", "UserUser1234!"))))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void test_refresh_runs_two_statements() throws Exception {
+        String refreshToken = jwtService.generateRefreshToken(user).getTokenValue();
+        statistics.clear();
+
+        mvc.perform(post("/v1/auth/refresh")
+                .with(csrf().useInvalidToken())
+                .header("Authorization", "Bearer " + refreshToken))
+                .andExpect(status().isOk());
+
+        // revoke the used refresh token, load the user, and fetch ids from the sequence once per 50 tokens
+        assertThat(statistics.getPrepareStatementCount()).isBetween(2L, 3L);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_get_current_user_runs_one_statement() throws Exception {
+        String accessToken = jwtService.generateAccessToken(user).getTokenValue();
+        statistics.clear();
+
+        mvc.perform(get("/v1/user")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void test_update_user_loads_the_role_with_the_user() throws Exception {
+        String accessToken = jwtService.generateAccessToken(user).getTokenValue();
+        statistics.clear();
+
+        mvc.perform(put("/v1/user")
+                .header("Authorization", "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(
+                        new UpdateUserDto("newUsername", "new@test.com", "newFirstname", "newLastname"))))
+                .andExpect(status().isOk());
+
+        // select with role, update
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(2);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_delete_user_runs_two_statements() throws Exception {
+        String accessToken = jwtService.generateAccessToken(user).getTokenValue();
+        statistics.clear();
+
+        mvc.perform(delete("/v1/user")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNoContent());
+
+        // delete the user, log the revoked security version, and fetch ids from the sequence once per 50 changes
+        assertThat(statistics.getPrepareStatementCount()).isBetween(2L, 3L);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(profileRepository.count()).isZero();
+    }
+}